@@ -1,8 +1,10 @@
 package chess.cli;
 
 import chess.engine.Engine;
+import chess.engine.SearchLimits;
 import chess.model.Game;
 import chess.model.Move;
+import chess.model.ParallelPerft;
 import chess.model.Piece;
 import chess.util.Client;
 import chess.util.Server;
@@ -10,6 +12,7 @@ import chess.util.TextManager;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Starting point of the command line interface
@@ -17,6 +20,10 @@ import java.util.*;
 public class Cli {
 	static Game game = new Game();
 	private static final Engine engine = new Engine();
+	// time the engine may think about a move
+	private static final SearchLimits engineLimits = SearchLimits.moveTime(1000);
+	// perft without table, so the speed is the speed of the move generation
+	private static ParallelPerft perft;
 	protected static boolean runningPVP = false;
 	protected static boolean runningPVPC = false;
 	protected static boolean runningNetwork = false;
@@ -150,6 +157,12 @@ public class Cli {
 				CliMenus.runSaveMenu(".");
 				printGameBoard();
 				break;
+			case 110: // perft code
+				printPerft(Integer.parseInt(userInput.substring(userInput.indexOf(' ') + 1)));
+				System.out.println("\n" + TextManager.get("cli.help.back"));
+				scan.nextLine();
+				printGameBoard();
+				break;
 			default: // make a move
 				Move move = Move.parseUserMoveInput(userInput, game);
 				performMove(move, true);
@@ -175,7 +188,7 @@ public class Cli {
 		Move next = move;
 		if (!userMove) {
 			System.out.println(TextManager.get("cli.aiThink"));
-			next = engine.generateBestMove(game.getCurrentPosition());
+			next = engine.generateBestMove(game.getCurrentPosition(), engineLimits);
 			ConsoleColors.greenBoldColor();
 			System.out.println("\n" + TextManager.get("cli.aiMove") + next.toString());
 			ConsoleColors.resetColor();
@@ -301,7 +314,7 @@ public class Cli {
 		// Checks if input matches one of valid inputs: move(e7-e8[Q]), beaten, help,
 		// quit, reset
 		return userInput.matches(
-				"^[a-h]{1}[1-8]{1}-[a-h]{1}[1-8]{1}[qrbn]?$|^help$|^hilfe$|^english$|^englisch$|^german$|^deutsch$|^beaten$|^geschlagen$|^restart$|^neustart$|^resign$|^aufgeben$|^save$|^speichern$|^menu$|^menue$|^quit$|^beenden$");
+				"^[a-h]{1}[1-8]{1}-[a-h]{1}[1-8]{1}[qrbn]?$|^help$|^hilfe$|^english$|^englisch$|^german$|^deutsch$|^beaten$|^geschlagen$|^restart$|^neustart$|^resign$|^aufgeben$|^save$|^speichern$|^perft [1-9]$|^menu$|^menue$|^quit$|^beenden$");
 	}
 
 	/**
@@ -319,6 +332,31 @@ public class Cli {
 		}
 	}
 
+	/**
+	 * Counts the legal move sequences from the current position on all cores and
+	 * prints the count of every move, the total and the speed. Every node is
+	 * visited, so the speed is the speed of the move generation.
+	 * 
+	 * @param depth number of plies
+	 */
+	private static void printPerft(int depth) {
+		System.out.println("\n" + TextManager.get("cli.perft.title") + depth + "\n");
+		long start = System.nanoTime();
+		if (perft == null)
+			perft = new ParallelPerft(ForkJoinPool.commonPool());
+		Map<Move, Long> counts = perft.divide(game.getCurrentPosition(), depth);
+		long nanos = Math.max(1, System.nanoTime() - start);
+
+		long nodes = 0;
+		for (Map.Entry<Move, Long> entry : counts.entrySet()) {
+			System.out.println(entry.getKey() + ": " + entry.getValue());
+			nodes += entry.getValue();
+		}
+		System.out.println("\n" + TextManager.get("cli.perft.nodes") + nodes);
+		System.out.println(TextManager.get("cli.perft.time") + nanos / 1_000_000 + " ms");
+		System.out.println(TextManager.get("cli.perft.nodesPerSecond") + nodes * 1_000_000_000L / nanos);
+	}
+
 	/**
 	 * Ends the game according to win conditions
 	 */
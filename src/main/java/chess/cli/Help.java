@@ -30,7 +30,8 @@ public class Help {
 		RESTART_EN(TextManager.get("cli.restartCommandEn")), RESTART_DE(TextManager.get("cli.restartCommandDe")),
 		RESIGN_EN(TextManager.get("cli.resignCommandEn")), RESIGN_DE(TextManager.get("cli.resignCommandDe")),
 		SAVE_EN(TextManager.get("cli.saveCommandEn")), SAVE_DE(TextManager.get("cli.saveCommandDe")),
-		CANCEL_EN(TextManager.get("cli.load.cancelEn")), CANCEL_DE(TextManager.get("cli.load.cancelDe"));
+		CANCEL_EN(TextManager.get("cli.load.cancelEn")), CANCEL_DE(TextManager.get("cli.load.cancelDe")),
+		PERFT_EN(TextManager.get("cli.perftCommandEn")), PERFT_DE(TextManager.get("cli.perftCommandDe"));
 
 		public final String raw;
 
@@ -81,6 +82,7 @@ public class Help {
 		addHelpField(CliCommand.RESIGN_EN.raw, CliCommand.RESIGN_DE.raw, "cli.help.resign");
 		addHelpField(CliCommand.RESTART_EN.raw, CliCommand.RESTART_DE.raw, "cli.help.restart");
 		addHelpField(CliCommand.SAVE_EN.raw, CliCommand.SAVE_DE.raw, "cli.help.save");
+		addHelpField(CliCommand.PERFT_EN.raw + " <1-9>", CliCommand.PERFT_DE.raw + " <1-9>", "cli.help.perft");
 	}
 
 	/**
@@ -211,6 +213,9 @@ public class Help {
 		if (command.matches("^" + CliCommand.SAVE_EN.raw + regexSep + CliCommand.SAVE_DE.raw + "$")) {
 			return 109;
 		}
+		if (command.matches("^(" + CliCommand.PERFT_EN.raw + "|" + CliCommand.PERFT_DE.raw + ") [1-9]$")) {
+			return 110;
+		}
 
 		int standardCode = detectStandardCommands(command);
 
@@ -2,15 +2,14 @@ package chess.engine;
 
 import chess.model.Board;
 import chess.model.Move;
-import chess.model.MoveGenerator;
-import chess.model.MoveValidator;
-
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
+import chess.model.MovePicker;
+import chess.model.Piece;
 
 /**
- * Engine class for choosing next moves
+ * Engine class for choosing next moves. The search is a negamax alpha-beta
+ * search: every score is seen from the side to move, so one function searches
+ * the moves of both colors. It runs on one copy of the position that is
+ * changed with doMove and undoMove.
  */
 public class Engine {
     /**
@@ -27,19 +26,66 @@ public class Engine {
      */
 
 
-    // only promote to queen
-    private static final List<Integer> promotionFilter = new ArrayList<>();
-    private int maxDepth = 3; // only use odd values!
+    // score of being mated at the root, mates further away score less
+    static final int mateScore = 1_000_000;
+    // bound above all scores, it can be negated without overflow
+    private static final int infinity = 2 * mateScore;
+    // the search stops extending at this ply
+    private static final int maxPly = 64;
+
+    // the limits are checked every this many nodes
+    private static final int checkInterval = 1024;
+    // limits of generateBestMove without limits
+    private static final SearchLimits defaultLimits = SearchLimits.depth(4);
+    private static final int defaultHashSizeInMegabytes = 16;
+    // history scores are halved when one of them reaches this value
+    private static final int maxHistory = 1 << 16;
+    // a capture that cannot raise the score above alpha by this margin (two
+    // pawns) is not searched in the quiescence search
+    private static final int deltaMargin = 2 * Piece.getValue(Piece.Pawn);
+
+    // the position searched, moves are made and taken back in place
+    private Board position;
+    // one move picker per ply, reused for all positions of that ply
+    private final MovePicker[] pickers = new MovePicker[maxPly];
+    // results of positions searched before, kept between moves
+    private final TranspositionTable table;
+    // two quiet moves per ply that caused a beta cutoff, tried after the captures
+    private final int[][] killers = new int[maxPly][2];
+    // scores of quiet moves that caused cutoffs, by color and Move.historyIndex
+    private final int[][] history = new int[2][4096];
+    // quiet move that refuted a move, by Move.historyIndex of the refuted move
+    private final int[] counterMoves = new int[4096];
+    // move made at each ply of the current line
+    private final int[] playedMoves = new int[maxPly];
+
+    private SearchLimits limits;
+    private long startTime;
+    private long nodes;
+    // set by stop and reset by clearStop only, so a stop before the search
+    // starts is not lost
+    private volatile boolean stopRequested;
+    // set on a stop request or when a limit is reached, the running iteration is
+    // discarded
+    private boolean stopped;
+    // best move and score of the root in the running iteration
+    private int rootBestMove;
+    private int rootBestScore;
 
-    private EngineBoard currentPosition;
 
     /**
-     * Contructor of the engine
+     * Engine with a 16 MB transposition table
      */
     public Engine() {
-        promotionFilter.add(Move.PromoteToBishop);
-        promotionFilter.add(Move.PromoteToKnight);
-        promotionFilter.add(Move.PromoteToRook);
+        this(defaultHashSizeInMegabytes);
+    }
+
+
+    /**
+     * @param hashSizeInMegabytes memory of the transposition table
+     */
+    public Engine(int hashSizeInMegabytes) {
+        table = new TranspositionTable(hashSizeInMegabytes);
     }
 
 
@@ -49,102 +95,388 @@ public class Engine {
      * @return the move the engine thinks is the best
      */
     public Move generateBestMove(Board board){
-        int color = board.getTurnColor();
+        return generateBestMove(board, defaultLimits);
+    }
 
-        List<EngineBoard> possiblePositions = getNextPositions(new EngineBoard(board));
-        if (possiblePositions.isEmpty()) {
-            return null;
-        }
 
-        EngineBoard bestPosition = null;
-        int bestValue = Integer.MIN_VALUE;
-        int value;
+    /**
+     * Searches one ply deeper in each iteration until a limit is reached. The
+     * best move of the previous iteration is searched first. If the engine was
+     * stopped and clearStop has not been called since, only the first iteration
+     * is searched, and it ends early.
+     * @param board the current board position, it is not changed
+     * @param limits when to stop searching
+     * @return the best move of the last completed iteration, null if there is no
+     *         legal move
+     */
+    public Move generateBestMove(Board board, SearchLimits limits) {
+        position = new Board(board);
+        this.limits = limits;
+        startTime = System.currentTimeMillis();
+        nodes = 0;
+        stopped = stopRequested;
+        table.newSearch();
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = 0;
+            plyKillers[1] = 0;
+        }
+        for (int[] colorHistory : history) {
+            ageHistory(colorHistory);
+        }
 
-        for (EngineBoard position : possiblePositions) {
-                value = alphaBetaPruning(position, maxDepth, color);
-            if (bestValue < value) {
-                bestValue = value;
-                bestPosition = position;
+        int bestMove = 0;
+        int maxDepth = Math.min(limits.getMaxDepth(), maxPly - 1);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            searchRoot(depth, bestMove);
+            // an unfinished iteration may have missed the best move, unless it is
+            // the only result
+            if (stopped && bestMove != 0) {
+                break;
+            }
+            bestMove = rootBestMove;
+            if (stopped || isMateScore(rootBestScore) || rootBestMove == 0) {
+                break;
+            }
+            // the next iteration would not finish in the remaining time
+            long moveTime = limits.getMoveTimeMillis();
+            if (0 < moveTime && moveTime < 2 * (System.currentTimeMillis() - startTime)) {
+                break;
             }
         }
-        if (bestPosition == null) {
-            return possiblePositions.get(0).getLastMove();
+        if (bestMove == 0) {
+            return null;
         }
-        return bestPosition.getLastMove();
+        return Move.decode(bestMove);
     }
 
 
-    private int alphaBetaPruning(EngineBoard board, int depth, int maximizingColor) {
-        int alpha, beta;
-        alpha = Integer.MIN_VALUE;
-        beta  = Integer.MAX_VALUE;
-        currentPosition = board;
-        return alphaBetaPruning(depth, maximizingColor, alpha, beta);
+    /**
+     * Stops a running or upcoming search, generateBestMove returns the best move
+     * found so far
+     */
+    public void stop() {
+        stopRequested = true;
     }
 
-    @SuppressWarnings({ "PMD.AvoidReassigningParameters", "PMD.UnusedLocalVariable" })
-    // Since this is recursive method reassigning is needed
-    // UnusedLocalVariable warning is wrong since value is used within the Math.max and Math.min Methods
-    private int alphaBetaPruning(int depth, int maximizingColor, int alpha, int beta) {
-        int value;
-        if (depth == 0) {
-            return currentPosition.getScore();
+
+    /**
+     * Allows searching again after stop. Call it when a search is scheduled, not
+     * from the searching thread, so that a stop between the two is not lost.
+     */
+    public void clearStop() {
+        stopRequested = false;
+    }
+
+
+    /**
+     * @return number of positions visited by the last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+
+    /**
+     * Searches all moves of the root position, the result is stored in
+     * rootBestMove and rootBestScore
+     * @param depth remaining plies
+     * @param firstMove packed move to search first or 0
+     */
+    private void searchRoot(int depth, int firstMove) {
+        MovePicker picker = picker(0);
+        picker.init(position, firstMove, 0, 0);
+        int alpha = -infinity;
+        rootBestScore = -infinity;
+        rootBestMove = 0;
+        for (int move = picker.next(); move != 0; move = picker.next()) {
+            if (isUnderPromotion(move)) {
+                continue;
+            }
+            playedMoves[0] = move;
+            position.doMove(move);
+            int score = -search(depth - 1, -infinity, -alpha, 1);
+            position.undoMove();
+            if (stopped && rootBestMove != 0) {
+                return;
+            }
+            if (rootBestScore < score) {
+                rootBestScore = score;
+                rootBestMove = move;
+                alpha = Math.max(alpha, score);
+            }
+        }
+    }
+
+
+    /**
+     * Fail-soft alpha-beta: the returned score may lie outside of the window,
+     * then it is a bound of the real score
+     * @param depth remaining plies
+     * @param alpha score the side to move already has elsewhere
+     * @param beta score the opponent already has elsewhere
+     * @param ply distance to the root
+     * @return score of the position for the side to move
+     */
+    private int search(int depth, int alpha, int beta, int ply) {
+        if (depth == 0 || ply == maxPly) {
+            return quiescence(alpha, beta, ply);
         }
-        if (currentPosition.getTurnColor() == maximizingColor) {
-            value = Integer.MIN_VALUE;
-            for (EngineBoard newPosition : getNextPositions(currentPosition)) {
-                value = Math.max(value, alphaBetaPruning(depth-1, maximizingColor, alpha, beta));
-                if (value <= beta) {
+        if (++nodes % checkInterval == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        // repeated positions and the fifty-move rule end the line in a draw
+        if (position.isRepetition() || position.isFiftyMoveRule()) {
+            return 0;
+        }
+
+        long key = position.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = TranspositionTable.moveOf(entry);
+        if (entry != 0 && depth <= TranspositionTable.depthOf(entry)) {
+            int score = scoreFromTable(TranspositionTable.scoreOf(entry), ply);
+            int bound = TranspositionTable.boundOf(entry);
+            if (bound == TranspositionTable.exact
+                    || bound == TranspositionTable.lowerBound && beta <= score
+                    || bound == TranspositionTable.upperBound && score <= alpha) {
+                return score;
+            }
+        }
+
+        int originalAlpha = alpha;
+        MovePicker picker = picker(ply);
+        int previousIndex = Move.historyIndex(playedMoves[ply - 1]);
+        picker.init(position, hashMove, killers[ply][0], killers[ply][1], counterMoves[previousIndex],
+                history[colorIndex()]);
+        int bestScore = -infinity;
+        int bestMove = 0;
+        for (int move = picker.next(); move != 0; move = picker.next()) {
+            if (isUnderPromotion(move)) {
+                continue;
+            }
+            boolean quiet = isQuiet(move);
+            playedMoves[ply] = move;
+            position.doMove(move);
+            int score = -search(depth - 1, -beta, -alpha, ply + 1);
+            position.undoMove();
+            if (bestScore < score) {
+                bestScore = score;
+                bestMove = move;
+                if (alpha < score) {
+                    alpha = score;
+                }
+                if (beta <= alpha) {
+                    if (quiet) {
+                        updateQuietStatistics(move, depth, ply, previousIndex);
+                    }
                     break;
                 }
-                alpha = Math.max(alpha, value);
             }
-            return value;
         }
-        value = Integer.MAX_VALUE;
-        for (EngineBoard newPosition : getNextPositions(currentPosition)) {
-            value = Math.min(value, alphaBetaPruning(depth-1, maximizingColor, alpha, beta));
-            if (value <= alpha) {
-                break;
+        if (bestScore == -infinity) {
+            // no legal move: mate or stalemate
+            return isInCheck() ? -mateScore + ply : 0;
+        }
+        if (!stopped) {
+            int bound = beta <= bestScore ? TranspositionTable.lowerBound
+                    : bestScore <= originalAlpha ? TranspositionTable.upperBound : TranspositionTable.exact;
+            table.store(key, bestMove, scoreToTable(bestScore, ply), depth, bound);
+        }
+        return bestScore;
+    }
+
+
+    /**
+     * Searches captures and queen promotions only, until the position is quiet,
+     * so that a leaf is not evaluated in the middle of an exchange. The side to
+     * move may stand pat with the static evaluation instead of capturing, unless
+     * it is in check: then all evasions are searched.
+     * @param alpha score the side to move already has elsewhere
+     * @param beta score the opponent already has elsewhere
+     * @param ply distance to the root
+     * @return score of the position for the side to move
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        if (++nodes % checkInterval == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (position.isRepetition() || position.isFiftyMoveRule()) {
+            return 0;
+        }
+        boolean inCheck = isInCheck();
+        int standPat = evaluate();
+        if (ply == maxPly) {
+            return standPat;
+        }
+        int bestScore = -infinity;
+        MovePicker picker = picker(ply);
+        if (inCheck) {
+            picker.init(position, 0, 0, 0);
+        } else {
+            if (beta <= standPat) {
+                return standPat;
+            }
+            bestScore = standPat;
+            if (alpha < standPat) {
+                alpha = standPat;
+            }
+            picker.initCaptures(position);
+        }
+        for (int move = picker.next(); move != 0; move = picker.next()) {
+            if (isUnderPromotion(move)) {
+                continue;
+            }
+            if (!inCheck) {
+                // the losing captures come last
+                if (picker.isLosingCapture()) {
+                    break;
+                }
+                // delta pruning
+                if (standPat + captureGain(move) + deltaMargin <= alpha) {
+                    continue;
+                }
+            }
+            position.doMove(move);
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            position.undoMove();
+            if (bestScore < score) {
+                bestScore = score;
+                if (alpha < score) {
+                    alpha = score;
+                }
+                if (beta <= alpha) {
+                    break;
+                }
             }
-            beta = Math.min(beta, value);
         }
-        return value;
+        if (bestScore == -infinity) {
+            // in check without a legal move
+            return -mateScore + ply;
+        }
+        return bestScore;
     }
 
 
     /**
-     * Gets all possible moves from the MoveGenerator,
-     * filters them with the MoveValidator
-     * and gives a score
-     * @param board The position to branch from
-     * @return List of scored positions
+     * @return material the side to move wins with a capture or promotion
      */
-    private List<EngineBoard> getNextPositions(EngineBoard board) {
-        List<Move> moves = getMoves(board, board.getTurnColor());
-        // make moves
-        List<EngineBoard> positions = new LinkedList<>();
-        for (Move move : moves) {
-            EngineBoard newBoard = new EngineBoard(board.makeMove(move));
-            positions.add(newBoard);
+    private int captureGain(int move) {
+        int flag = Move.flagOf(move);
+        int victim = flag == Move.EnPassantCapture ? Piece.Pawn
+                : position.getPieceAt(Move.targetSquareOf(move)) & Piece.typeMask;
+        int gain = Piece.getValue(victim);
+        if (flag == Move.PromoteToQueen) {
+            gain += Piece.getValue(Piece.Queen) - Piece.getValue(Piece.Pawn);
+        }
+        return gain;
+    }
+
+
+    /**
+     * Remembers a quiet move that caused a beta cutoff as killer of the ply, as
+     * countermove of the previous move and in the history, deeper cutoffs count
+     * more
+     */
+    private void updateQuietStatistics(int move, int depth, int ply, int previousIndex) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        counterMoves[previousIndex] = move;
+        int[] colorHistory = history[colorIndex()];
+        colorHistory[Move.historyIndex(move)] += depth * depth;
+        if (maxHistory <= colorHistory[Move.historyIndex(move)]) {
+            ageHistory(colorHistory);
+        }
+    }
+
+
+    // older cutoffs count less than recent ones
+    private static void ageHistory(int[] colorHistory) {
+        for (int i = 0; i < colorHistory.length; i++) {
+            colorHistory[i] >>= 1;
+        }
+    }
+
+
+    private int colorIndex() {
+        return position.getTurnColor() == Piece.White ? 0 : 1;
+    }
+
+
+    // mate scores are stored relative to the position, not to the root
+    private static int scoreToTable(int score, int ply) {
+        if (isMateScore(score)) {
+            return score < 0 ? score - ply : score + ply;
         }
-        return positions;
+        return score;
+    }
+
+
+    private static int scoreFromTable(int score, int ply) {
+        if (isMateScore(score)) {
+            return score < 0 ? score + ply : score - ply;
+        }
+        return score;
+    }
+
+
+    private void checkLimits() {
+        long moveTime = limits.getMoveTimeMillis();
+        long maxNodes = limits.getMaxNodes();
+        if (stopRequested || 0 < moveTime && moveTime <= System.currentTimeMillis() - startTime
+                || 0 < maxNodes && maxNodes <= nodes) {
+            stopped = true;
+        }
+    }
+
+
+    private static boolean isMateScore(int score) {
+        return mateScore - maxPly <= Math.abs(score);
     }
 
 
     /**
-     * Compute list of all possible moves, but only promote to Queen
-     * @param board the current position
-     * @param color the color to move
-     * @return a list of Move objects
+     * @return score of the position for the side to move
      */
-    protected static List<Move> getMoves(EngineBoard board, int color) {
-        MoveGenerator generator = new MoveGenerator(board);
-        if (generator.getTeamColor() != color)
-            generator.swapColors();
-        List<Move> moves = MoveValidator.filter(board, generator.generateMoves());
-        // filter promotions other than queen
-        moves.removeIf(m -> promotionFilter.contains(m.getFlag()));
-        return moves;
+    private int evaluate() {
+        int score = ScoreGenerator.evaluate(position);
+        return position.getTurnColor() == Piece.White ? score : -score;
+    }
+
+
+    private boolean isInCheck() {
+        int color = position.getTurnColor();
+        int kingSquare = position.getKingSquare(color);
+        return 0 <= kingSquare
+                && position.isSquareAttacked(kingSquare, color == Piece.White ? Piece.Black : Piece.White);
+    }
+
+
+    // neither a capture nor a promotion
+    private boolean isQuiet(int move) {
+        int flag = Move.flagOf(move);
+        return position.getPieceAt(Move.targetSquareOf(move)) == Piece.None
+                && flag != Move.EnPassantCapture && !(Move.PromoteToKnight <= flag && flag <= Move.PromoteToQueen);
+    }
+
+
+    // only promotions to queen are searched
+    private static boolean isUnderPromotion(int move) {
+        int flag = Move.flagOf(move);
+        return Move.PromoteToKnight <= flag && flag <= Move.PromoteToRook;
+    }
+
+
+    private MovePicker picker(int ply) {
+        if (pickers[ply] == null) {
+            pickers[ply] = new MovePicker();
+        }
+        return pickers[ply];
     }
 }
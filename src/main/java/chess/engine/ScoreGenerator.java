@@ -1,10 +1,8 @@
 package chess.engine;
 
+import chess.model.Board;
 import chess.model.Piece;
 
-import java.util.HashMap;
-import java.util.Map;
-
 
 /**
  * Assigns a score value to a given board position based on the value of captured pieces
@@ -153,24 +151,9 @@ public class ScoreGenerator {
         End of piece position tables
      */
 
-    /*A pawn is worth one point,
-      a knight or bishop is worth three points,
-      a rook is worth five points and a queen is worth nine points.
-     */
-    private static final Map<Integer, Integer> pieceValue = new HashMap<>(
-            Map.of(Piece.Pawn, 1000,
-                    Piece.Knight, 3000,
-                    Piece.Bishop, 3000,
-                    Piece.Rook, 5000,
-                    Piece.Queen, 9000 )
-    );
-
-
-    private final EngineBoard board;
-    private int score;                        // positive score value is good for white, negative good for black.
-    private final int numPiecesEndgame = 10;  // if there are less pieces left in the game we enter endgame.
-    private int numPieces=0;                  // may be better count material value as described here
-                                              // https://en.wikipedia.org/wiki/Chess_endgame#The_start_of_the_endgame
+    private static final int numPiecesEndgame = 10;  // if there are less pieces left in the game we enter endgame.
+                                                     // may be better count material value as described here
+                                                     // https://en.wikipedia.org/wiki/Chess_endgame#The_start_of_the_endgame
 
 
     /**
@@ -187,70 +170,36 @@ public class ScoreGenerator {
 
 
     /**
-     * Return score for this position
-     * @return computed score for this position
-     */
-    public int getScore() { return score; }
-
-
-    /**
-     * Initialize score generation for
-     * @param board the current position
+     * Scores a position without changing it, the engine calls this for every leaf
+     * @param board the position
+     * @return positive score value is good for white, negative good for black
      */
-    public ScoreGenerator(EngineBoard board) {
-        this.board = board;
-        scoreBoard();
-    }
-
-
-    /**
-     * Runs all score methods for this board.
-     * A positive score value is good for white, negative good for black.
-     */
-    private void scoreBoard() {
-        score = 0;
-        score += scorePieceValue();
-        score += scorePiecePositionValue();
-        board.setScore(score);
-    }
-
-
-    /**
-     * Scores the material (piece score values) in the current position
-     * @return score for material count
-     */
-    private int scorePieceValue() {
-        int score = 0;
-        int sign;
+    static int evaluate(Board board) {
         int oppColor = board.getTurnColor() == Piece.White ? Piece.Black : Piece.White;
-        for (int piece : board.getCapturedPieces()) {
-            if (Piece.isColor(piece, oppColor)) {
-                numPieces += 1;
-            }
-            sign = Piece.isColor(piece, Piece.White) ? 1: -1;
-            score += sign * pieceValue.get(Piece.getType(piece));
-        }
-        return score;
+        // pieces of the opponent that are not on the board anymore
+        int numPieces = 16 - Long.bitCount(board.getColorBitboard(oppColor));
+        return board.getMaterialBalance() + scorePiecePositionValue(board, numPieces <= numPiecesEndgame);
     }
 
 
     /**
      * Scores the position of all pieces according to the corresponding table
+     * @param board the position
+     * @param endgame use the endgame tables
      * @return total score for the position value count
      */
-    private int scorePiecePositionValue() {
+    private static int scorePiecePositionValue(Board board, boolean endgame) {
         int piece, type, color, sign;
         int score = 0;
-        for (int index=0;index < 64; index++) {
+        // only the occupied squares
+        for (long pieces = board.getOccupancy(); pieces != 0; pieces &= pieces - 1) {
+            int index = Long.numberOfTrailingZeros(pieces);
             piece = board.getPieceAt(index);
             type = Piece.getType(piece);
-            if (type == 0) {
-                continue;
-            }
             color = Piece.getColor(piece);
             sign = color == Piece.White ? 1: -1;
 
-            if (numPieces <= numPiecesEndgame) {
+            if (endgame) {
                 score += getPiecePositionValueEG(getTableIndex(index, color), sign, type);
             } else {
                 score += getPiecePositionValueMG(getTableIndex(index, color), sign, type);
@@ -0,0 +1,75 @@
+package chess.engine;
+
+/**
+ * Tells the engine when to stop searching. The search deepens one ply at a time
+ * and stops at the first limit that is reached: the depth, the time for the
+ * move or the number of nodes. An infinite search only stops at the maximum
+ * depth of the engine or when Engine.stop is called.
+ */
+public class SearchLimits {
+
+    private final int maxDepth;
+    private final long moveTimeMillis;
+    private final long maxNodes;
+    private final boolean infinite;
+
+    /**
+     * @param maxDepth       number of plies of the last iteration
+     * @param moveTimeMillis time for the move in milliseconds, 0 for no limit
+     * @param maxNodes       number of positions to search, 0 for no limit
+     * @param infinite       true to ignore all other limits
+     */
+    public SearchLimits(int maxDepth, long moveTimeMillis, long maxNodes, boolean infinite) {
+        this.maxDepth = maxDepth;
+        this.moveTimeMillis = moveTimeMillis;
+        this.maxNodes = maxNodes;
+        this.infinite = infinite;
+    }
+
+    /**
+     * @param depth number of plies
+     * @return limits for a search to a fixed depth
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0, false);
+    }
+
+    /**
+     * @param millis time for the move in milliseconds
+     * @return limits for a search with a fixed time
+     */
+    public static SearchLimits moveTime(long millis) {
+        return new SearchLimits(Integer.MAX_VALUE, millis, 0, false);
+    }
+
+    /**
+     * @param nodes number of positions to search
+     * @return limits for a search of a fixed number of positions
+     */
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(Integer.MAX_VALUE, 0, nodes, false);
+    }
+
+    /**
+     * @return limits for a search until Engine.stop is called
+     */
+    public static SearchLimits infinite() {
+        return new SearchLimits(Integer.MAX_VALUE, 0, 0, true);
+    }
+
+    public int getMaxDepth() {
+        return infinite ? Integer.MAX_VALUE : maxDepth;
+    }
+
+    public long getMoveTimeMillis() {
+        return infinite ? 0 : moveTimeMillis;
+    }
+
+    public long getMaxNodes() {
+        return infinite ? 0 : maxNodes;
+    }
+
+    public boolean isInfinite() {
+        return infinite;
+    }
+}
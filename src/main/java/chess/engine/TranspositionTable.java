@@ -0,0 +1,117 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size hash table of search results, indexed by the Zobrist key of the
+ * position. Every bucket has two entries: the first keeps the deepest result of
+ * the current search, the second is always replaced. Every entry holds two
+ * longs: the data and the Zobrist key XOR the data. An entry written by two
+ * threads at once does not pass the XOR check and is treated as empty, so the
+ * table can be shared without locks.
+ *
+ * The data is packed as:
+ * bits 0-15 best move, 16-47 score, 48-55 depth, 56-57 bound, 58-63 age
+ */
+class TranspositionTable {
+
+    // bound of the stored score
+    static final int lowerBound = 1;
+    static final int upperBound = 2;
+    static final int exact = 3;
+
+    // longs per entry and per bucket
+    private static final int entrySize = 2;
+    private static final int bucketSize = 2 * entrySize;
+
+    private final long[] entries;
+    private final int mask;
+    // age of the current search, entries of older searches are replaced first
+    private int age = 0;
+
+    /**
+     * @param sizeInMegabytes memory of the table, rounded down to a power of two
+     *                        number of buckets
+     */
+    TranspositionTable(int sizeInMegabytes) {
+        long buckets = Long.highestOneBit(Math.max(1, (long) sizeInMegabytes * 1024 * 1024 / (8 * bucketSize)));
+        buckets = Math.min(buckets, 1 << 28);
+        entries = new long[(int) (bucketSize * buckets)];
+        mask = (int) buckets - 1;
+    }
+
+    /**
+     * Starts a new search, the entries of earlier searches may be replaced
+     */
+    void newSearch() {
+        age = (age + 1) & 0x3F;
+    }
+
+    /**
+     * Removes all entries
+     */
+    void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    /**
+     * @param key Zobrist key of the position
+     * @return the packed data of the position or 0 if there is none
+     */
+    long probe(long key) {
+        int bucket = index(key);
+        for (int i = bucket; i < bucket + bucketSize; i += entrySize) {
+            long data = entries[i + 1];
+            if ((entries[i] ^ data) == key && data != 0)
+                return data;
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a search result. The first entry of the bucket is replaced if the
+     * new result is at least as deep, belongs to the same position or the entry
+     * is from an earlier search, otherwise the second entry is replaced.
+     *
+     * @param key   Zobrist key of the position
+     * @param move  best packed move or 0
+     * @param score score for the side to move
+     * @param depth remaining depth (less than 256)
+     * @param bound lowerBound, upperBound or exact
+     */
+    void store(long key, int move, int score, int depth, int bound) {
+        int bucket = index(key);
+        long data = (move & 0xFFFFL) | (score & 0xFFFFFFFFL) << 16 | (long) depth << 48 | (long) bound << 56
+                | (long) age << 58;
+        long first = entries[bucket + 1];
+        int slot = bucket + entrySize;
+        if ((entries[bucket] ^ first) == key || depthOf(first) <= depth || ageOf(first) != age)
+            slot = bucket;
+        entries[slot] = key ^ data;
+        entries[slot + 1] = data;
+    }
+
+    static int moveOf(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    static int scoreOf(long data) {
+        return (int) (data >>> 16);
+    }
+
+    static int depthOf(long data) {
+        return (int) (data >>> 48 & 0xFF);
+    }
+
+    static int boundOf(long data) {
+        return (int) (data >>> 56 & 0x3);
+    }
+
+    private static int ageOf(long data) {
+        return (int) (data >>> 58);
+    }
+
+    private int index(long key) {
+        return bucketSize * (int) ((key ^ key >>> 32) & mask);
+    }
+}
@@ -91,7 +91,7 @@ public class BoardController {
 
 		// if promotion is possible
 		if (Piece.isColor(board.getPieceAt(startIndex), board.getTurnColor())
-				&& MoveValidator.validateMove(testGame.getCurrentPosition(), testMove)
+				&& testGame.isLegalMove(testMove)
 				&& (Coordinate.isOnUpperBorder(targetIndex) || Coordinate.isOnLowerBorder(targetIndex))
 				&& Piece.isType(board.getPieceAt(startIndex), Piece.Pawn)) {
 			// open the PopupMenu to choose promotion
@@ -204,6 +204,7 @@ public class BoardController {
 				}
 			});
 
+			GameModel.prepareEngineMove();
 			performEngineMoveService.restart();
 		}
 		// Network
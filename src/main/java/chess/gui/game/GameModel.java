@@ -1,6 +1,7 @@
 package chess.gui.game;
 
 import chess.engine.Engine;
+import chess.engine.SearchLimits;
 import chess.gui.Gui;
 import chess.gui.settings.SettingsModel;
 import chess.gui.util.GraphicsManager;
@@ -58,6 +59,11 @@ public class GameModel {
 	 */
 	private static Engine engine = new Engine();
 
+	/**
+	 * Time the engine may think about a move
+	 */
+	private static final SearchLimits engineLimits = SearchLimits.moveTime(1000);
+
 	/**
 	 * Stores whether the user is allowed do make a move. This variable is used to
 	 * prevent the user from making moves while the Engine computes a move.
@@ -156,15 +162,14 @@ public class GameModel {
 	}
 
 	/**
-	 * Uses the MoveGenerator to get possible moves from a starting position
+	 * Reads the possible moves from a starting position from the legal moves of
+	 * the current game
 	 * 
 	 * @param startPosition the starting position
 	 * @return the possible moves
 	 */
 	public static List<Move> getPossibleMoves(int startPosition) {
-		MoveGenerator generator = new MoveGenerator(currentGame.getCurrentPosition());
-		possibleMoves = MoveValidator.filter(currentGame.getCurrentPosition(),
-				generator.generateMovesStartingAt(startPosition));
+		possibleMoves = currentGame.getLegalMovesStartingAt(startPosition);
 		return possibleMoves;
 	}
 
@@ -208,8 +213,17 @@ public class GameModel {
 		movesHistory.add(0, next);
 	}
 
+	/**
+	 * Lets the engine search again after it was stopped. Called on the GUI thread
+	 * before an engine move is scheduled, so that a stop while the move is
+	 * pending still ends the search.
+	 */
+	public static void prepareEngineMove() {
+		engine.clearStop();
+	}
+
 	private static Move engineMove() {
-		Move next = engine.generateBestMove(currentGame.getCurrentPosition());
+		Move next = engine.generateBestMove(currentGame.getCurrentPosition(), engineLimits);
 		return next;
 	}
 
@@ -375,6 +389,8 @@ public class GameModel {
 	 */
 	public static void setTaskStopped(boolean stop) {
 		taskStopped = stop;
+		if (stop)
+			engine.stop();
 	}
 
 	/**
@@ -2,6 +2,7 @@ package chess.model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -21,63 +22,143 @@ public class Board implements Serializable {
 
 	// representing the chess board where squares[0] is "a8" and squares[63] is "h1"
 	private int[] squares;
-
-	private List<Integer> capturedPieces;
+	// the same position as bitboards where bit i stands for squares[i]
+	// colorBitboards[0]: white pieces, colorBitboards[1]: black pieces
+	private long[] colorBitboards;
+	// typeBitboards[Piece.King] ... typeBitboards[Piece.Queen] for both colors
+	private long[] typeBitboards;
+
+	// square of the king of each color (index as colorBitboards), -1 if there is
+	// none
+	private int[] kingSquares;
+	// number of pieces on the board, pieceCounts[piece] including the color bit
+	private int[] pieceCounts;
+	// material of white minus material of black (see Piece.getValue)
+	private int materialBalance = 0;
+	// captured pieces in the order of capture, a list is only built for display
+	private int[] capturedPieces;
+	private int capturedCount = 0;
 	// if a pawn moved two spaces when this board was created, it is possible to
 	// capture the pawn at this position:
 	private int enPassantSquare;
 	private int turnColor;
-	// is castling with one of the four rooks still possible?
-	private boolean CastlingA1Possible = true;
-	private boolean CastlingA8Possible = true;
-	private boolean CastlingH1Possible = true;
-	private boolean CastlingH8Possible = true;
-	// the move that created this position
-	private Move lastMove = null;
+	// is castling with one of the four rooks still possible? (castlingA1 | ...)
+	private int castlingRights = castlingA1 | castlingH1 | castlingA8 | castlingH8;
+	// the packed move that created this position (0: no move)
+	private int lastMove = 0;
+	// Zobrist key of pieces, side to move, castling rights and en passant file
+	private long zobristKey;
+	// plies since the last capture or pawn move (fifty-move rule)
+	private int halfmoveClock = 0;
+	// starts at 1 and is incremented after each move of black
+	private int fullmoveNumber = 1;
+	// keys of the positions before each move, keyHistory[keyCount - 1] belongs to
+	// the position before the last move
+	private long[] keyHistory;
+	private int keyCount = 0;
+
+	// FEN letter of every piece and piece of every FEN letter
+	private static final char[] fenChars = new char[Piece.Black + Piece.Queen + 1];
+	private static final int[] fenPieces = new int['z' + 1];
+	// value of every piece for the material balance, negative for black
+	private static final int[] materialValues = new int[Piece.Black + Piece.Queen + 1];
+
+	static {
+		String letters = "kpnbrq";
+		for (int type = Piece.King; type <= Piece.Queen; type++) {
+			char letter = letters.charAt(type - Piece.King);
+			fenChars[type + Piece.Black] = letter;
+			fenChars[type + Piece.White] = Character.toUpperCase(letter);
+			fenPieces[letter] = type + Piece.Black;
+			fenPieces[Character.toUpperCase(letter)] = type + Piece.White;
+			materialValues[type + Piece.White] = Piece.getValue(type);
+			materialValues[type + Piece.Black] = -Piece.getValue(type);
+		}
+	}
+
+	// bits of castlingRights
+	private static final int castlingA1 = 1;
+	private static final int castlingH1 = 2;
+	private static final int castlingA8 = 4;
+	private static final int castlingH8 = 8;
+
+	// undo records of all moves made with doMove, packed as:
+	// bits 0-14 move, 15-19 captured piece, 20-23 castling rights,
+	// 24-30 en passant square + 1, 31-45 previous last move,
+	// 46-55 previous halfmove clock
+	private long[] undoRecords;
+	private int undoCount = 0;
 
 	/** @return the last move that created this position */
 	public Move getLastMove() {
-		return lastMove;
+		return lastMove == 0 ? null : Move.decode(lastMove);
 	}
 
 	/** @return true if castling with A1 rook is possible */
 	public boolean isCastlingA1Possible() {
-		return CastlingA1Possible;
+		return (castlingRights & castlingA1) != 0;
 	}
 
 	/** @return true if castling with A8 rook is possible */
 	public boolean isCastlingA8Possible() {
-		return CastlingA8Possible;
+		return (castlingRights & castlingA8) != 0;
 	}
 
 	/** @return true if castling with H1 rook is possible */
 	public boolean isCastlingH1Possible() {
-		return CastlingH1Possible;
+		return (castlingRights & castlingH1) != 0;
 	}
 
 	/** @return true if castling with H8 rook is possible */
 	public boolean isCastlingH8Possible() {
-		return CastlingH8Possible;
+		return (castlingRights & castlingH8) != 0;
 	}
 
 	/** forbid castling **/
 	public void forbidCastlingA1() {
-		CastlingA1Possible = false;
+		setCastlingRights(castlingRights & ~castlingA1);
 	}
 
 	/** forbid castling **/
 	public void forbidCastlingA8() {
-		CastlingA8Possible = false;
+		setCastlingRights(castlingRights & ~castlingA8);
 	}
 
 	/** forbid castling **/
 	public void forbidCastlingH1() {
-		CastlingH1Possible = false;
+		setCastlingRights(castlingRights & ~castlingH1);
 	}
 
 	/** forbid castling **/
 	public void forbidCastlingH8() {
-		CastlingH8Possible = false;
+		setCastlingRights(castlingRights & ~castlingH8);
+	}
+
+	// changes the castling rights and their part of the key
+	private void setCastlingRights(int castlingRights) {
+		zobristKey ^= Zobrist.castling(this.castlingRights) ^ Zobrist.castling(castlingRights);
+		this.castlingRights = castlingRights;
+	}
+
+	/**
+	 * @return the Zobrist key of this position, equal positions (pieces, side to
+	 *         move, castling rights and en passant square) have equal keys
+	 */
+	public long getZobristKey() {
+		return zobristKey;
+	}
+
+	/**
+	 * Computes the Zobrist key from scratch, the incrementally updated key must
+	 * always be equal to it
+	 * 
+	 * @return the key of this position
+	 */
+	long computeZobristKey() {
+		long key = Zobrist.side(turnColor) ^ Zobrist.castling(castlingRights) ^ Zobrist.enPassant(enPassantSquare);
+		for (int i = 0; i < 64; i++)
+			key ^= Zobrist.piece(squares[i], i);
+		return key;
 	}
 
 	/**
@@ -85,59 +166,191 @@ public class Board implements Serializable {
 	 */
 	public Board() {
 		squares = new int[64];
+		colorBitboards = new long[2];
+		typeBitboards = new long[7];
 		turnColor = Piece.White;
 		enPassantSquare = -1;
-		capturedPieces = new ArrayList<>();
+		kingSquares = new int[] { -1, -1 };
+		pieceCounts = new int[Piece.Black + Piece.Queen + 1];
+		// no more pieces than squares can be captured
+		capturedPieces = new int[64];
+		zobristKey = computeZobristKey();
 	}
 
 	/**
-	 * Construct Board instance from fen string
+	 * Construct Board instance from fen string. Fields missing after the piece
+	 * placement get their defaults: white to move, all castling rights, no en
+	 * passant square and the clocks of a new game.
 	 * 
-	 * @param fenString Integer representation starting square
+	 * @param fenString the position in Forsyth–Edwards Notation
 	 */
-	public Board(String fenString) {
+	public Board(CharSequence fenString) {
 		this();
-		squares = Board.squaresFromFENString(fenString);
+		loadFEN(fenString);
 	}
 
 	/**
-	 * Used to init the squares field
+	 * Replaces the position of this board by the position of a FEN string, so one
+	 * Board can be reused for many positions. The history (captured pieces, undo
+	 * records, repetitions) is cleared.
 	 * 
-	 * @param fenString the board position as FEN-String
-	 * @return returns the squares representation for fenString
+	 * @param fen the position in Forsyth–Edwards Notation, missing fields after
+	 *            the piece placement get their defaults
+	 * @throws IllegalArgumentException if a field after the piece placement is
+	 *                                  invalid
 	 */
-	private static int[] squaresFromFENString(String fenString) {
-
-		int[] squares = new int[64];
+	public void loadFEN(CharSequence fen) {
+		Arrays.fill(squares, Piece.None);
+		capturedCount = 0;
+		undoCount = 0;
+		keyCount = 0;
+		lastMove = 0;
+
+		int length = fen.length();
+		int i = 0;
 		int position = 0;
-		String pieceChars = "kKpPnNbBrRqQ";
-		int[] pieceRepresentations = new int[] { Piece.King + Piece.Black, Piece.King + Piece.White,
-				Piece.Pawn + Piece.Black, Piece.Pawn + Piece.White, Piece.Knight + Piece.Black, Piece.Knight + Piece.White,
-				Piece.Bishop + Piece.Black, Piece.Bishop + Piece.White, Piece.Rook + Piece.Black, Piece.Rook + Piece.White,
-				Piece.Queen + Piece.Black, Piece.Queen + Piece.White, };
-
-		for (Character s : fenString.toCharArray()) {
-			if (s == ' ')
+		// piece placement
+		for (; i < length; i++) {
+			char c = fen.charAt(i);
+			if (c == ' ')
 				break;
-			// move s squares forward
-			if (Character.isDigit(s)) {
-				position += Character.getNumericValue(s);
-				continue;
-			}
-			// increase position until next line
-			if (s == '/') {
-				if (position % 8 != 0) {
+			if ('1' <= c && c <= '8') {
+				position += c - '0';
+			} else if (c == '/') {
+				// increase position until next line
+				if (position % 8 != 0)
 					position += 8 - position % 8;
+			} else if (c < fenPieces.length && fenPieces[c] != Piece.None && position < 64) {
+				squares[position++] = fenPieces[c];
+			}
+		}
+		initBitboards();
+
+		// side to move
+		i = skipSpaces(fen, i);
+		turnColor = Piece.White;
+		if (i < length) {
+			char c = fen.charAt(i++);
+			if (c == 'b')
+				turnColor = Piece.Black;
+			else if (c != 'w')
+				throw new IllegalArgumentException("Invalid side to move in FEN: " + fen);
+		}
+
+		// castling rights
+		i = skipSpaces(fen, i);
+		castlingRights = castlingA1 | castlingH1 | castlingA8 | castlingH8;
+		if (i < length) {
+			castlingRights = 0;
+			for (; i < length && fen.charAt(i) != ' '; i++) {
+				switch (fen.charAt(i)) {
+					case 'K':
+						castlingRights |= castlingH1;
+						break;
+					case 'Q':
+						castlingRights |= castlingA1;
+						break;
+					case 'k':
+						castlingRights |= castlingH8;
+						break;
+					case 'q':
+						castlingRights |= castlingA8;
+						break;
+					case '-':
+						break;
+					default:
+						throw new IllegalArgumentException("Invalid castling rights in FEN: " + fen);
 				}
-				continue;
 			}
-			// add piece to the position
-			if (0 <= pieceChars.indexOf(s)) {
-				squares[position] = pieceRepresentations[pieceChars.indexOf(s)];
-				position += 1;
+		}
+
+		// en passant square
+		i = skipSpaces(fen, i);
+		enPassantSquare = -1;
+		if (i < length && fen.charAt(i) == '-') {
+			i++;
+		} else if (i + 1 < length) {
+			int file = fen.charAt(i) - 'a';
+			int rank = fen.charAt(i + 1) - '1';
+			if (file < 0 || 7 < file || rank < 0 || 7 < rank)
+				throw new IllegalArgumentException("Invalid en passant square in FEN: " + fen);
+			enPassantSquare = Coordinate.toIndex(file, 7 - rank);
+			i += 2;
+		}
+
+		// halfmove clock and fullmove number
+		i = skipSpaces(fen, i);
+		halfmoveClock = 0;
+		for (; i < length && Character.isDigit(fen.charAt(i)); i++)
+			halfmoveClock = 10 * halfmoveClock + fen.charAt(i) - '0';
+		i = skipSpaces(fen, i);
+		int fullmove = 0;
+		for (; i < length && Character.isDigit(fen.charAt(i)); i++)
+			fullmove = 10 * fullmove + fen.charAt(i) - '0';
+		fullmoveNumber = Math.max(1, fullmove);
+
+		zobristKey = computeZobristKey();
+	}
+
+	private static int skipSpaces(CharSequence fen, int i) {
+		while (i < fen.length() && fen.charAt(i) == ' ')
+			i++;
+		return i;
+	}
+
+	/**
+	 * @return the position with all six fields in Forsyth–Edwards Notation
+	 */
+	public String toFEN() {
+		return appendFEN(new StringBuilder(90)).toString();
+	}
+
+	/**
+	 * Appends the position in Forsyth–Edwards Notation to fen, a builder can be
+	 * reused for many positions by resetting its length.
+	 * 
+	 * @param fen the builder to append to
+	 * @return fen
+	 */
+	public StringBuilder appendFEN(StringBuilder fen) {
+		for (int rank = 0; rank < 8; rank++) {
+			if (0 < rank)
+				fen.append('/');
+			int empty = 0;
+			for (int file = 0; file < 8; file++) {
+				int piece = squares[8 * rank + file];
+				if (piece == Piece.None) {
+					empty++;
+					continue;
+				}
+				if (0 < empty)
+					fen.append((char) ('0' + empty));
+				empty = 0;
+				fen.append(fenChars[piece]);
 			}
+			if (0 < empty)
+				fen.append((char) ('0' + empty));
+		}
+
+		fen.append(turnColor == Piece.Black ? " b " : " w ");
+		if (castlingRights == 0)
+			fen.append('-');
+		if (isCastlingH1Possible())
+			fen.append('K');
+		if (isCastlingA1Possible())
+			fen.append('Q');
+		if (isCastlingH8Possible())
+			fen.append('k');
+		if (isCastlingA8Possible())
+			fen.append('q');
+
+		fen.append(' ');
+		if (enPassantSquare < 0) {
+			fen.append('-');
+		} else {
+			fen.append((char) ('a' + enPassantSquare % 8)).append((char) ('8' - enPassantSquare / 8));
 		}
-		return squares;
+		return fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
 	}
 
 	/**
@@ -148,28 +361,39 @@ public class Board implements Serializable {
 	 */
 	public Board(String fenString, int turnColor) {
 		this(fenString);
-		this.turnColor = turnColor;
+		setTurnColor(turnColor);
 	}
 
 	/**
-	 * Clone Board instance
+	 * Clone Board instance. All fields are copied directly, nothing is allocated
+	 * or computed for an empty board first.
 	 * 
 	 * @param board another Board instance
 	 */
 	public Board(Board board) {
-		this();
 		squares = board.squares.clone();
-		capturedPieces = new ArrayList<>();
-		capturedPieces.addAll(board.getCapturedPieces());
+		colorBitboards = board.colorBitboards.clone();
+		typeBitboards = board.typeBitboards.clone();
+		kingSquares = board.kingSquares.clone();
+		pieceCounts = board.pieceCounts.clone();
+		materialBalance = board.materialBalance;
+		capturedPieces = board.capturedPieces.clone();
+		capturedCount = board.capturedCount;
 		// En passant capture only within next move possible
 		enPassantSquare = board.getEnPassantSquare();
 		turnColor = board.getTurnColor();
 		// is castling with one of the four rooks still possible?
-		CastlingA1Possible = board.isCastlingA1Possible();
-		CastlingA8Possible = board.isCastlingA8Possible();
-		CastlingH1Possible = board.isCastlingH1Possible();
-		CastlingH8Possible = board.isCastlingH8Possible();
-		lastMove = board.getLastMove();
+		castlingRights = board.castlingRights;
+		lastMove = board.lastMove;
+		zobristKey = board.zobristKey;
+		halfmoveClock = board.halfmoveClock;
+		fullmoveNumber = board.fullmoveNumber;
+		// only positions since the last capture or pawn move can repeat
+		if (board.keyHistory != null) {
+			keyHistory = Arrays.copyOfRange(board.keyHistory, Math.max(0, board.keyCount - halfmoveClock),
+					board.keyCount);
+			keyCount = keyHistory.length;
+		}
 	}
 
 	/**
@@ -180,29 +404,215 @@ public class Board implements Serializable {
 	 */
 	public Board(Board board, Move move) {
 		this(board);
-		// capture piece if needed
-		if (!Piece.isType(getPieceAt(move.getTargetSquare()), Piece.None)) {
-			capturedPieces.add(getPieceAt(move.getTargetSquare()));
+		applyMove(move.encode());
+	}
+
+	/**
+	 * Applies move to this position. The position before the move can be
+	 * restored with undoMove.
+	 * 
+	 * @param move the packed move (see Move.encode)
+	 */
+	public void doMove(int move) {
+		if (undoRecords == null) {
+			undoRecords = new long[64];
+		} else if (undoCount == undoRecords.length) {
+			undoRecords = Arrays.copyOf(undoRecords, 2 * undoCount);
+		}
+		long state = (long) castlingRights << 20 | (long) (enPassantSquare + 1) << 24 | (long) lastMove << 31
+				| (long) Math.min(halfmoveClock, 0x3FF) << 46;
+		int capturedPiece = applyMove(move);
+		undoRecords[undoCount++] = state | move | capturedPiece << 15;
+	}
+
+	/**
+	 * Applies move to this position
+	 * 
+	 * @param move the move to make
+	 */
+	public void doMove(Move move) {
+		doMove(move.encode());
+	}
+
+	/**
+	 * Takes back the last move made with doMove
+	 */
+	public void undoMove() {
+		long record = undoRecords[--undoCount];
+		int move = (int) (record & 0x7FFF);
+		int capturedPiece = (int) (record >>> 15 & 0x1F);
+		int startSquare = Move.startSquareOf(move);
+		int targetSquare = Move.targetSquareOf(move);
+		int flag = Move.flagOf(move);
+
+		setTurnColor((turnColor == Piece.Black) ? Piece.White : Piece.Black);
+		if (turnColor == Piece.Black)
+			fullmoveNumber--;
+		setCastlingRights((int) (record >>> 20 & 0xF));
+		setEnPassantSquare((int) (record >>> 24 & 0x7F) - 1);
+		lastMove = (int) (record >>> 31 & 0x7FFF);
+		halfmoveClock = (int) (record >>> 46 & 0x3FF);
+		keyCount--;
+
+		// put the piece back (as pawn if it was promoted)
+		int piece = getPieceAt(targetSquare);
+		if (3 <= flag && flag <= 6)
+			piece = Piece.Pawn + Piece.getColor(piece);
+		setPieceAt(startSquare, piece);
+		setPieceAt(targetSquare, Piece.None);
+
+		if (flag == Move.Castling) {
+			int rookCurrentPosition = castlingRookStart(startSquare, targetSquare);
+			int rookNewPosition = castlingRookTarget(startSquare, targetSquare);
+			setPieceAt(rookCurrentPosition, getPieceAt(rookNewPosition));
+			setPieceAt(rookNewPosition, Piece.None);
 		}
-		if (Piece.isType(getPieceAt(move.getStartSquare()), Piece.Pawn))
-			enPassantCapture(move);
+		if (capturedPiece != Piece.None) {
+			int captureSquare = flag == Move.EnPassantCapture ? enPassantCaptureSquare(startSquare, targetSquare)
+					: targetSquare;
+			setPieceAt(captureSquare, capturedPiece);
+			capturedCount--;
+		}
+	}
+
+	/**
+	 * Moves the pieces and updates all fields for the next turn
+	 * 
+	 * @param move the packed move
+	 * @return the captured piece or Piece.None
+	 */
+	private int applyMove(int move) {
+		int startSquare = Move.startSquareOf(move);
+		int targetSquare = Move.targetSquareOf(move);
+		int flag = Move.flagOf(move);
+		int piece = getPieceAt(startSquare);
+		pushKey();
 
-		forbidCastling(move);
-		movePiece(move);
-		if (0 < move.getFlag())
-			promotePawn(move);
+		// capture piece if needed
+		int capturedPiece = getPieceAt(targetSquare);
+		if (flag == Move.EnPassantCapture && 0 < enPassantSquare && Piece.isType(piece, Piece.Pawn)) {
+			int captureSquare = enPassantCaptureSquare(startSquare, targetSquare);
+			capturedPiece = getPieceAt(captureSquare);
+			setPieceAt(captureSquare, Piece.None);
+		}
+		if (capturedPiece != Piece.None)
+			capturedPieces[capturedCount++] = capturedPiece;
+
+		forbidCastling(startSquare);
+		// a captured rook cannot castle anymore
+		forbidCastling(targetSquare);
+		setPieceAt(targetSquare, piece);
+		setPieceAt(startSquare, Piece.None);
+		// move the rook when castling
+		if (flag == Move.Castling) {
+			int rookCurrentPosition = castlingRookStart(startSquare, targetSquare);
+			int rookNewPosition = castlingRookTarget(startSquare, targetSquare);
+			setPieceAt(rookNewPosition, getPieceAt(rookCurrentPosition));
+			setPieceAt(rookCurrentPosition, Piece.None);
+		}
+		// promote pawn if necessary
+		if (3 <= flag && flag <= 6)
+			setPieceAt(targetSquare, flag + Piece.getColor(piece));
 
-		// reset fields for the next move
-		if (move.getFlag() != Move.PawnTwoForward)
+		// if the pawn moved two squares it can be captured en passant next move
+		if (flag == Move.PawnTwoForward && Piece.isType(piece, Piece.Pawn)) {
+			int stepBackDirection = (turnColor == Piece.White) ? MoveGenerator.DOWN : MoveGenerator.UP;
+			setEnPassantSquare(targetSquare + stepBackDirection);
+		} else {
 			setEnPassantSquare(-1);
+		}
+
+		if (capturedPiece != Piece.None || Piece.isType(piece, Piece.Pawn)) {
+			halfmoveClock = 0;
+		} else {
+			halfmoveClock++;
+		}
 
-		int nextTurnColor = (getTurnColor() == Piece.Black) ? Piece.White : Piece.Black;
-		setTurnColor(nextTurnColor);
+		if (turnColor == Piece.Black)
+			fullmoveNumber++;
+		setTurnColor((turnColor == Piece.Black) ? Piece.White : Piece.Black);
 		lastMove = move;
+		return capturedPiece;
+	}
+
+	// remember the key of the position before a move
+	private void pushKey() {
+		if (keyHistory == null) {
+			keyHistory = new long[64];
+		} else if (keyCount == keyHistory.length) {
+			keyHistory = Arrays.copyOf(keyHistory, Math.max(64, 2 * keyCount));
+		}
+		keyHistory[keyCount++] = zobristKey;
+	}
+
+	/**
+	 * @return number of plies since the last capture or pawn move
+	 */
+	public int getHalfmoveClock() {
+		return halfmoveClock;
+	}
+
+	/**
+	 * @return number of the current move, starting at 1 and incremented after
+	 *         each move of black
+	 */
+	public int getFullmoveNumber() {
+		return fullmoveNumber;
 	}
 
-	private void forbidCastling(Move move) {
-		switch (move.getStartSquare()) {
+	/**
+	 * @param halfmoveClock number of plies since the last capture or pawn move
+	 */
+	public void setHalfmoveClock(int halfmoveClock) {
+		this.halfmoveClock = halfmoveClock;
+	}
+
+	/**
+	 * Counts how often this position occurred before. Only the positions since
+	 * the last capture or pawn move with the same side to move are compared.
+	 * 
+	 * @return number of earlier occurrences of this position
+	 */
+	public int countRepetitions() {
+		int repetitions = 0;
+		int first = Math.max(0, keyCount - halfmoveClock);
+		for (int i = keyCount - 2; first <= i; i -= 2) {
+			if (keyHistory[i] == zobristKey)
+				repetitions++;
+		}
+		return repetitions;
+	}
+
+	/**
+	 * @return true if this position occurred before, enough for the search to
+	 *         score it as a draw
+	 */
+	public boolean isRepetition() {
+		int first = Math.max(0, keyCount - halfmoveClock);
+		for (int i = keyCount - 2; first <= i; i -= 2) {
+			if (keyHistory[i] == zobristKey)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if this position occurs for the third time
+	 */
+	public boolean isThreefoldRepetition() {
+		return 2 <= countRepetitions();
+	}
+
+	/**
+	 * @return true if there was no capture or pawn move in the last fifty moves of
+	 *         each side
+	 */
+	public boolean isFiftyMoveRule() {
+		return 100 <= halfmoveClock;
+	}
+
+	private void forbidCastling(int startSquare) {
+		switch (startSquare) {
 			// rook moved
 			case 0:
 				forbidCastlingA8();
@@ -230,59 +640,31 @@ public class Board implements Serializable {
 		}
 	}
 
-	private void movePiece(Move move) {
-		squares[move.getTargetSquare()] = getPieceAt(move.getStartSquare());
-		squares[move.getStartSquare()] = Piece.None;
-		// move the rook when castling
-		if (move.getFlag() == Move.Castling) {
-			int rookCurrentPosition, rookNewPosition;
-			if (move.getTargetSquare() < move.getStartSquare()) {
-				rookCurrentPosition = move.getTargetSquare() - 2;
-				rookNewPosition = move.getTargetSquare() + 1;
-			} else {
-				rookCurrentPosition = move.getTargetSquare() + 1;
-				rookNewPosition = move.getTargetSquare() - 1;
-			}
-			squares[rookNewPosition] = getPieceAt(rookCurrentPosition);
-			squares[rookCurrentPosition] = Piece.None;
-		}
-		// promote pawn if necessary
-		int flag = move.getFlag();
-		if (flag < 3 || 6 < flag)
-			return;
-		int color = Piece.getColor(getPieceAt(move.getTargetSquare()));
-		squares[move.getTargetSquare()] = flag + color;
+	/**
+	 * @param startSquare  start square of the castling king
+	 * @param targetSquare target square of the castling king
+	 * @return position of the rook before castling
+	 */
+	static int castlingRookStart(int startSquare, int targetSquare) {
+		return targetSquare < startSquare ? targetSquare - 2 : targetSquare + 1;
 	}
 
 	/**
-	 * Implements promoting the pawn
-	 *
-	 * @param move the current move
-	 **/
-	private void promotePawn(Move move) {
-		int flag = move.getFlag();
-		if (3 <= flag && flag <= 6)
-			squares[move.getTargetSquare()] = flag + turnColor;
+	 * @param startSquare  start square of the castling king
+	 * @param targetSquare target square of the castling king
+	 * @return position of the rook after castling
+	 */
+	static int castlingRookTarget(int startSquare, int targetSquare) {
+		return targetSquare < startSquare ? targetSquare + 1 : targetSquare - 1;
 	}
 
 	/**
-	 * Implements en passant capture rule
-	 *
-	 * @param move the current move
-	 **/
-	private void enPassantCapture(Move move) {
-		if (0 < enPassantSquare && move.getFlag() == Move.EnPassantCapture) {
-			int opponentPos = Coordinate.fromIndex(move.getTargetSquare())[0]
-					- Coordinate.fromIndex(move.getStartSquare())[0];
-			opponentPos += move.getStartSquare();
-			capturedPieces.add(getPieceAt(opponentPos));
-			squares[opponentPos] = Piece.None;
-			enPassantSquare = -1;
-		}
-		if (move.getFlag() == Move.PawnTwoForward) {
-			int stepBackDirection = (turnColor == Piece.White) ? MoveGenerator.DOWN : MoveGenerator.UP;
-			setEnPassantSquare(move.getTargetSquare() + stepBackDirection);
-		}
+	 * @param startSquare  start square of the capturing pawn
+	 * @param targetSquare target square of the capturing pawn
+	 * @return position of the pawn captured en passant
+	 */
+	static int enPassantCaptureSquare(int startSquare, int targetSquare) {
+		return startSquare + Coordinate.fileOf(targetSquare) - Coordinate.fileOf(startSquare);
 	}
 
 	/**
@@ -296,10 +678,40 @@ public class Board implements Serializable {
 	}
 
 	/**
-	 * @return all captured pieces
+	 * Builds the list of captured pieces for display. Evaluation should use
+	 * getPieceCount and getMaterialBalance, which need no list.
+	 * 
+	 * @return new list of all captured pieces in the order of capture
 	 */
 	public List<Integer> getCapturedPieces() {
-		return capturedPieces;
+		List<Integer> pieces = new ArrayList<>(capturedCount);
+		for (int i = 0; i < capturedCount; i++)
+			pieces.add(capturedPieces[i]);
+		return pieces;
+	}
+
+	/**
+	 * @param type  piece type (Piece.King ... Piece.Queen)
+	 * @param color Piece.White or Piece.Black
+	 * @return number of pieces of type and color on the board
+	 */
+	public int getPieceCount(int type, int color) {
+		return pieceCounts[type + color];
+	}
+
+	/**
+	 * @param color Piece.White or Piece.Black
+	 * @return square of the king of color or -1 if there is no king
+	 */
+	public int getKingSquare(int color) {
+		return kingSquares[colorIndex(color)];
+	}
+
+	/**
+	 * @return material of white minus material of black, see Piece.getValue
+	 */
+	public int getMaterialBalance() {
+		return materialBalance;
 	}
 
 	/**
@@ -317,6 +729,7 @@ public class Board implements Serializable {
 	 * @param turnColor what piece color to set
 	 */
 	public void setTurnColor(int turnColor) {
+		zobristKey ^= Zobrist.side(this.turnColor) ^ Zobrist.side(turnColor);
 		this.turnColor = turnColor;
 	}
 
@@ -337,6 +750,7 @@ public class Board implements Serializable {
 	 * @param enPassantSquare set position of the enPassantSquare
 	 */
 	public void setEnPassantSquare(int enPassantSquare) {
+		zobristKey ^= Zobrist.enPassant(this.enPassantSquare) ^ Zobrist.enPassant(enPassantSquare);
 		this.enPassantSquare = enPassantSquare;
 	}
 
@@ -379,6 +793,137 @@ public class Board implements Serializable {
 		return squares[squareIndex];
 	}
 
+	/**
+	 * Places piece on squareIndex and keeps the bitboards in sync with squares
+	 * 
+	 * @param squareIndex where to put the piece
+	 * @param piece       the piece or Piece.None to clear the square
+	 */
+	private void setPieceAt(int squareIndex, int piece) {
+		long bit = 1L << squareIndex;
+		int oldPiece = squares[squareIndex];
+		zobristKey ^= Zobrist.piece(oldPiece, squareIndex) ^ Zobrist.piece(piece, squareIndex);
+		if (oldPiece != Piece.None) {
+			colorBitboards[colorIndex(oldPiece)] &= ~bit;
+			typeBitboards[Piece.getType(oldPiece)] &= ~bit;
+			pieceCounts[oldPiece]--;
+			materialBalance -= materialValues[oldPiece];
+		}
+		squares[squareIndex] = piece;
+		if (piece != Piece.None) {
+			colorBitboards[colorIndex(piece)] |= bit;
+			typeBitboards[Piece.getType(piece)] |= bit;
+			pieceCounts[piece]++;
+			materialBalance += materialValues[piece];
+		}
+		if (Piece.isType(oldPiece, Piece.King))
+			updateKingSquare(oldPiece);
+		if (Piece.isType(piece, Piece.King))
+			updateKingSquare(piece);
+	}
+
+	// the king square is taken from the bitboard, so it stays valid for
+	// positions with several kings of one color
+	private void updateKingSquare(int king) {
+		long kings = typeBitboards[Piece.King] & colorBitboards[colorIndex(king)];
+		kingSquares[colorIndex(king)] = kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+	}
+
+	// Build all bitboards and piece counts from the squares array
+	private void initBitboards() {
+		colorBitboards = new long[2];
+		typeBitboards = new long[7];
+		Arrays.fill(pieceCounts, 0);
+		materialBalance = 0;
+		for (int i = 0; i < 64; i++) {
+			if (squares[i] == Piece.None)
+				continue;
+			colorBitboards[colorIndex(squares[i])] |= 1L << i;
+			typeBitboards[Piece.getType(squares[i])] |= 1L << i;
+			pieceCounts[squares[i]]++;
+			materialBalance += materialValues[squares[i]];
+		}
+		updateKingSquare(Piece.White);
+		updateKingSquare(Piece.Black);
+	}
+
+	/**
+	 * @param piece a piece or a color
+	 * @return 0 for white and 1 for black
+	 */
+	static int colorIndex(int piece) {
+		return (piece & Piece.colorMask) == Piece.Black ? 1 : 0;
+	}
+
+	/**
+	 * @return bitboard of all occupied squares
+	 */
+	public long getOccupancy() {
+		return colorBitboards[0] | colorBitboards[1];
+	}
+
+	/**
+	 * @param color Piece.White or Piece.Black
+	 * @return bitboard of all squares occupied by pieces of color
+	 */
+	public long getColorBitboard(int color) {
+		return colorBitboards[colorIndex(color)];
+	}
+
+	/**
+	 * @param type piece type (Piece.King ... Piece.Queen)
+	 * @return bitboard of all squares occupied by pieces of type (both colors)
+	 */
+	public long getTypeBitboard(int type) {
+		return typeBitboards[type];
+	}
+
+	/**
+	 * @param type  piece type (Piece.King ... Piece.Queen)
+	 * @param color Piece.White or Piece.Black
+	 * @return bitboard of all squares occupied by pieces of type and color
+	 */
+	public long getPieceBitboard(int type, int color) {
+		return typeBitboards[type] & colorBitboards[colorIndex(color)];
+	}
+
+	/**
+	 * Looks backwards from square: a piece attacks square if the same piece type
+	 * standing on square would attack it.
+	 * 
+	 * @param square    the attacked square
+	 * @param occupancy bitboard of the pieces blocking sliding pieces
+	 * @return bitboard of the pieces of both colors attacking square
+	 */
+	public long attackersOf(int square, long occupancy) {
+		long rooksAndQueens = typeBitboards[Piece.Rook] | typeBitboards[Piece.Queen];
+		long bishopsAndQueens = typeBitboards[Piece.Bishop] | typeBitboards[Piece.Queen];
+		long pawns = typeBitboards[Piece.Pawn];
+		return LeaperAttacks.knightAttacks(square) & typeBitboards[Piece.Knight]
+				| LeaperAttacks.kingAttacks(square) & typeBitboards[Piece.King]
+				| LeaperAttacks.pawnAttacks(square, Piece.Black) & pawns & colorBitboards[0]
+				| LeaperAttacks.pawnAttacks(square, Piece.White) & pawns & colorBitboards[1]
+				| SlidingAttacks.rookAttacks(square, occupancy) & rooksAndQueens
+				| SlidingAttacks.bishopAttacks(square, occupancy) & bishopsAndQueens;
+	}
+
+	/**
+	 * @param square the attacked square
+	 * @return bitboard of the pieces of both colors attacking square
+	 */
+	public long attackersOf(int square) {
+		return attackersOf(square, getOccupancy());
+	}
+
+	/**
+	 * @param square  the square to check
+	 * @param byColor color of the attacking pieces
+	 * @return true if a piece of byColor attacks square
+	 */
+	public boolean isSquareAttacked(int square, int byColor) {
+		return (attackersOf(square) & getColorBitboard(byColor)) != 0;
+	}
+
 	/**
 	 * Returns the indices for all pieces of a certain color
 	 * 
@@ -386,10 +931,11 @@ public class Board implements Serializable {
 	 * @return returns List of positions
 	 */
 	public List<Integer> getPiecePositionsFor(int color) {
-		ArrayList<Integer> positions = new ArrayList<>();
-		for (int i = 0; i < 64; i++) {
-			if (Piece.isColor(squares[i], color))
-				positions.add(i);
+		long pieces = getColorBitboard(color);
+		ArrayList<Integer> positions = new ArrayList<>(Long.bitCount(pieces));
+		while (pieces != 0) {
+			positions.add(Long.numberOfTrailingZeros(pieces));
+			pieces &= pieces - 1;
 		}
 		return positions;
 	}
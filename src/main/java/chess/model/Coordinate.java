@@ -9,16 +9,44 @@ public class Coordinate {
 	public static final String fileNames = "abcdefgh";
 	public static final String rankNames = "87654321";
 
+	// file (a:0 ... h:7) and rank (8:0 ... 1:7) of every square
+	private static final int[] files = new int[64];
+	private static final int[] ranks = new int[64];
+
+	static {
+		for (int index = 0; index < 64; index++) {
+			int file = index % 8;
+			int rank = index / 8;
+			files[index] = file;
+			ranks[index] = rank;
+		}
+	}
+
 	/**
-	 * Convert squares index to 2d coordinate
+	 * Convert squares index to 2d coordinate. Allocates an array, use fileOf and
+	 * rankOf in loops.
 	 * 
 	 * @param index the position in the board.squares array
 	 * @return array containing {file, rank}
 	 */
 	public static int[] fromIndex(int index) {
-		int file = index % 8;
-		int rank = index / 8;
-		return new int[] { file, rank };
+		return new int[] { files[index], ranks[index] };
+	}
+
+	/**
+	 * @param index the position in the board.squares array
+	 * @return the file of index (a:0, b:1, .., h:7)
+	 */
+	public static int fileOf(int index) {
+		return files[index];
+	}
+
+	/**
+	 * @param index the position in the board.squares array
+	 * @return the rank of index (8:0, 7:1, ..., 1:7)
+	 */
+	public static int rankOf(int index) {
+		return ranks[index];
 	}
 
 	/**
@@ -49,7 +77,7 @@ public class Coordinate {
 	 * @return Returns true if index lies on the "a" file
 	 */
 	public static boolean isOnLeftBorder(int index) {
-		return fromIndex(index)[0] == 0;
+		return files[index] == 0;
 	}
 
 	/**
@@ -57,7 +85,7 @@ public class Coordinate {
 	 * @return Returns true if index lies on the "h" file
 	 */
 	public static boolean isOnRightBorder(int index) {
-		return fromIndex(index)[0] == 7;
+		return files[index] == 7;
 	}
 
 	/**
@@ -65,7 +93,7 @@ public class Coordinate {
 	 * @return Returns true if index lies on the "8" rank
 	 */
 	public static boolean isOnUpperBorder(int index) {
-		return fromIndex(index)[1] == 0;
+		return ranks[index] == 0;
 	}
 
 	/**
@@ -73,7 +101,7 @@ public class Coordinate {
 	 * @return Returns true if index lies on the "1" rank
 	 */
 	public static boolean isOnLowerBorder(int index) {
-		return fromIndex(index)[1] == 7;
+		return ranks[index] == 7;
 	}
 
 	/**
@@ -112,8 +140,7 @@ public class Coordinate {
 	 * @return String representation of the coordinate
 	 */
 	public static String toString(int index) {
-		int[] coordinates = fromIndex(index);
-		return fileNames.charAt(coordinates[0]) + "" + rankNames.charAt(coordinates[1]);
+		return fileNames.charAt(files[index]) + "" + rankNames.charAt(ranks[index]);
 	}
 
 }
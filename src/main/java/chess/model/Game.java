@@ -1,13 +1,17 @@
 package chess.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 import static java.lang.Math.abs;
 
 /**
- * Represents a game of chess
+ * Represents a game of chess. The public methods synchronize on the game, so
+ * the engine thread can make its move while the GUI thread reads the position.
  */
 public class Game implements Serializable {
 
@@ -20,13 +24,79 @@ public class Game implements Serializable {
 		NONE, CHECKMATE, REMIS, RESIGN;
 	}
 
-	private final Stack<Board> history;
+	// the game is stored as start position and moves, all positions are replayed
+	// from them when a saved game is loaded
+	private final String startPosition;
+	private final MoveList history;
+	// the current position, moves are made and taken back in place
+	private transient Board position;
+	// copy of position handed out by getCurrentPosition, null after a change
+	private transient Board currentPosition;
+	// legal moves and check status of position, null after a change
+	private transient MoveList legalMoves;
+	private transient boolean inCheck;
 
 	/**
+	 * The returned board is a copy that is not changed by later moves, it is
+	 * shared by all calls until the position changes.
+	 * 
 	 * @return returns the current position
 	 */
-	public Board getCurrentPosition() {
-		return history.peek();
+	public synchronized Board getCurrentPosition() {
+		if (currentPosition == null)
+			currentPosition = new Board(position);
+		return currentPosition;
+	}
+
+	// generate the legal moves once per position, all queries read them
+	private MoveList legalMoves() {
+		if (legalMoves == null) {
+			LegalMoveGenerator generator = new LegalMoveGenerator();
+			MoveList moves = new MoveList();
+			generator.generate(position, moves);
+			inCheck = generator.isInCheck();
+			legalMoves = moves;
+		}
+		return legalMoves;
+	}
+
+	// the position was changed by a move or an undo
+	private void positionChanged() {
+		currentPosition = null;
+		legalMoves = null;
+	}
+
+	/**
+	 * @return the legal moves of the side to move in the current position
+	 */
+	public synchronized List<Move> getLegalMoves() {
+		return legalMoves().toMoves();
+	}
+
+	/**
+	 * @param startSquare square of the piece to move
+	 * @return the legal moves of the piece on startSquare, empty if it is not a
+	 *         piece of the side to move
+	 */
+	public synchronized List<Move> getLegalMovesStartingAt(int startSquare) {
+		MoveList moves = legalMoves();
+		List<Move> result = new ArrayList<>();
+		for (int i = 0; i < moves.size(); i++) {
+			if (Move.startSquareOf(moves.get(i)) == startSquare)
+				result.add(Move.decode(moves.get(i)));
+		}
+		return result;
+	}
+
+	/**
+	 * @param move a move with start square, target square and flag
+	 * @return true if move is legal in the current position
+	 */
+	public synchronized boolean isLegalMove(Move move) {
+		// a single move is checked faster than all moves are generated
+		if (legalMoves == null)
+			return new LegalMoveGenerator().isLegal(position, move.encode());
+		return legalMoves.contains(move.encode());
 	}
 
 	/**
@@ -42,8 +112,21 @@ public class Game implements Serializable {
 	 * @param startingPosition initial position as fen string
 	 */
 	public Game(String startingPosition) {
-		history = new Stack<>();
-		history.push(new Board(startingPosition));
+		startPosition = startingPosition;
+		history = new MoveList();
+		position = new Board(startingPosition);
+	}
+
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+	}
+
+	// rebuild the current position from the moves
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		position = new Board(startPosition);
+		for (int i = 0; i < history.size(); i++)
+			position.doMove(history.get(i));
 	}
 
 	/**
@@ -52,45 +135,49 @@ public class Game implements Serializable {
 	 * @param move move which needs to be attempted
 	 * @return true if the move was legal and was applied successfully
 	 */
-	public boolean attemptMove(Move move) {
-		Board board = history.peek();
-		// directly return false if user tries to move opponent piece
-		if (!Piece.isColor(board.getPieceAt(move.getStartSquare()), board.getTurnColor()))
+	public synchronized boolean attemptMove(Move move) {
+		if (!isLegalMove(move))
 			return false;
-		if (!MoveValidator.validateMove(board, move))
-			return false;
-		history.push(board.makeMove(move));
+		position.doMove(move);
+		history.add(move.encode());
+		positionChanged();
 		return true;
 	}
 
 	/**
-	 * Pop the last board of the history and set it as current position
+	 * Take back the last move
 	 * 
-	 * @return The previous board position or a empty board if history is empty
+	 * @return The previous board position or the start position if no move was
+	 *         made
 	 */
-	public Board undoMove() {
-		if (history.isEmpty())
-			return new Board();
-		history.pop();
-		return history.peek();
+	public synchronized Board undoMove() {
+		if (!history.isEmpty()) {
+			position.undoMove();
+			history.removeAt(history.size() - 1);
+			positionChanged();
+		}
+		return getCurrentPosition();
 	}
 
 	/**
-	 * Returns Checkmate or Remis for current player. Beware: If this returns
-	 * CHECKMATE the *other color* has won the game!
+	 * Returns Checkmate or Remis for current player. Remis includes threefold
+	 * repetition and the fifty-move rule. Beware: If this returns CHECKMATE the
+	 * *other color* has won the game!
 	 * 
 	 * @param board current position
 	 * @return NONE, CHECKMATE, REMIS
 	 */
-	public WinCondition checkWinCondition(Board board) {
-		MoveGenerator generator = new MoveGenerator(board);
-		int check = MoveValidator.checkCheck(board, board.getTurnColor());
-		List<Move> possibleMoves = MoveValidator.filter(board, generator.generateMoves());
-		if (possibleMoves.isEmpty()) {
-			if (check != 0)
+	public synchronized WinCondition checkWinCondition(Board board) {
+		if (board == currentPosition)
+			return checkWinCondition();
+		LegalMoveGenerator generator = new LegalMoveGenerator();
+		if (!generator.hasAnyLegalMove(board)) {
+			if (generator.isInCheck())
 				return WinCondition.CHECKMATE;
 			return WinCondition.REMIS;
 		}
+		if (board.isFiftyMoveRule() || board.isThreefoldRepetition())
+			return WinCondition.REMIS;
 		return WinCondition.NONE;
 	}
 
@@ -100,16 +187,20 @@ public class Game implements Serializable {
 	 * 
 	 * @return NONE, CHECKMATE, REMIS
 	 */
-	public WinCondition checkWinCondition() {
-		return checkWinCondition(getCurrentPosition());
+	public synchronized WinCondition checkWinCondition() {
+		if (legalMoves().isEmpty())
+			return inCheck ? WinCondition.CHECKMATE : WinCondition.REMIS;
+		if (position.isFiftyMoveRule() || position.isThreefoldRepetition())
+			return WinCondition.REMIS;
+		return WinCondition.NONE;
 	}
 
 	/**
 	 * @return true if king of the current player is in check
 	 */
-	public boolean checkCheck() {
-		Board board = getCurrentPosition();
-		return 0 < MoveValidator.checkCheck(board, board.getTurnColor());
+	public synchronized boolean checkCheck() {
+		legalMoves();
+		return inCheck;
 	}
 
 	/**
@@ -117,18 +208,17 @@ public class Game implements Serializable {
 	 * 
 	 * @param move the input move providing start and target square
 	 */
-	public void addFlag(Move move) {
+	public synchronized void addFlag(Move move) {
 		// do not change already set flag
 		if (move.getFlag() != 0)
 			return;
 
-		Board board = getCurrentPosition();
 		int startSquare = move.getStartSquare();
 		int targetSquare = move.getTargetSquare();
 
-		switch (Piece.getType(board.getPieceAt(startSquare))) {
+		switch (Piece.getType(position.getPieceAt(startSquare))) {
 			case Piece.Pawn:
-				addFlagPawn(move, board, startSquare, targetSquare);
+				addFlagPawn(move, startSquare, targetSquare);
 				break;
 			case Piece.King:
 				addFlagKing(move, startSquare, targetSquare);
@@ -136,17 +226,14 @@ public class Game implements Serializable {
 		}
 	}
 
-	private void addFlagPawn(Move move, Board board, int startSquare, int targetSquare) {
+	private void addFlagPawn(Move move, int startSquare, int targetSquare) {
 		// check two forward
-		if (abs(Coordinate.fromIndex(startSquare)[1] - Coordinate.fromIndex(targetSquare)[1]) == 2) {
+		if (abs(Coordinate.rankOf(startSquare) - Coordinate.rankOf(targetSquare)) == 2) {
 			move.setFlag(Move.PawnTwoForward);
-		} else if (abs(Coordinate.fromIndex(startSquare)[0] - Coordinate.fromIndex(targetSquare)[0]) == 1) {
+		} else if (abs(Coordinate.fileOf(startSquare) - Coordinate.fileOf(targetSquare)) == 1) {
 			// check en passant
-			Move enPassantMove = new Move(startSquare, targetSquare, Move.EnPassantCapture);
-			MoveGenerator generator = new MoveGenerator(board);
-			if (generator.generateMovesStartingAt(startSquare).contains(enPassantMove)) {
+			if (isLegalMove(new Move(startSquare, targetSquare, Move.EnPassantCapture)))
 				move.setFlag(Move.EnPassantCapture);
-			}
 		}
 		if (Coordinate.isOnUpperBorder(targetSquare) || Coordinate.isOnLowerBorder(targetSquare)) {
 			// pawn reached last rank and no flag was set
@@ -156,7 +243,7 @@ public class Game implements Serializable {
 	}
 
 	private void addFlagKing(Move move, int startSquare, int targetSquare) {
-		int fileDiff = abs(Coordinate.fromIndex(startSquare)[0] - Coordinate.fromIndex(targetSquare)[0]);
+		int fileDiff = abs(Coordinate.fileOf(startSquare) - Coordinate.fileOf(targetSquare));
 		if (fileDiff == 2)
 			move.setFlag(Move.Castling);
 	}
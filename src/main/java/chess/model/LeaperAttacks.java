@@ -0,0 +1,70 @@
+package chess.model;
+
+/**
+ * Precomputed attack tables for the pieces that jump to fixed offsets (knight,
+ * king and pawn). Squares are indexed as in Board.squares ("a8" is 0, "h1" is
+ * 63). All tables are filled once at class load.
+ */
+public class LeaperAttacks {
+
+	// {file delta, rank delta}
+	private static final int[][] knightDeltas = { { 1, -2 }, { 2, -1 }, { 2, 1 }, { 1, 2 }, { -1, 2 }, { -2, 1 },
+			{ -2, -1 }, { -1, -2 } };
+	private static final int[][] kingDeltas = { { 0, -1 }, { 1, -1 }, { 1, 0 }, { 1, 1 }, { 0, 1 }, { -1, 1 },
+			{ -1, 0 }, { -1, -1 } };
+	// white pawns move up (towards rank index 0), black pawns move down
+	private static final int[][] whitePawnDeltas = { { -1, -1 }, { 1, -1 } };
+	private static final int[][] blackPawnDeltas = { { -1, 1 }, { 1, 1 } };
+
+	private static final long[] knightTable = new long[64];
+	private static final long[] kingTable = new long[64];
+	// pawnTable[0]: white pawns, pawnTable[1]: black pawns
+	private static final long[][] pawnTable = new long[2][64];
+
+	static {
+		for (int square = 0; square < 64; square++) {
+			knightTable[square] = targets(square, knightDeltas);
+			kingTable[square] = targets(square, kingDeltas);
+			pawnTable[0][square] = targets(square, whitePawnDeltas);
+			pawnTable[1][square] = targets(square, blackPawnDeltas);
+		}
+	}
+
+	/**
+	 * @param square position of the knight
+	 * @return bitboard of all squares attacked by a knight on square
+	 */
+	public static long knightAttacks(int square) {
+		return knightTable[square];
+	}
+
+	/**
+	 * @param square position of the king
+	 * @return bitboard of all squares attacked by a king on square
+	 */
+	public static long kingAttacks(int square) {
+		return kingTable[square];
+	}
+
+	/**
+	 * @param square position of the pawn
+	 * @param color  color of the pawn
+	 * @return bitboard of the (at most two) squares diagonally in front of the
+	 *         pawn
+	 */
+	public static long pawnAttacks(int square, int color) {
+		return pawnTable[Board.colorIndex(color)][square];
+	}
+
+	// Collect all squares reachable with one of the deltas without leaving the board
+	private static long targets(int square, int[][] deltas) {
+		long targets = 0;
+		for (int[] delta : deltas) {
+			int file = square % 8 + delta[0];
+			int rank = square / 8 + delta[1];
+			if (0 <= file && file < 8 && 0 <= rank && rank < 8)
+				targets |= 1L << Coordinate.toIndex(file, rank);
+		}
+		return targets;
+	}
+}
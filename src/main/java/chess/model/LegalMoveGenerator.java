@@ -0,0 +1,400 @@
+package chess.model;
+
+/**
+ * Generates only legal moves for the side to move. Instead of making every
+ * pseudo-legal move and looking for checks afterwards, the checking and the
+ * pinned pieces are computed once per position:
+ * <ul>
+ * <li>in double check only the king may move</li>
+ * <li>in single check all other pieces must capture the checking piece or
+ * block the line between it and the king</li>
+ * <li>a pinned piece may only move along the line through the king</li>
+ * <li>the king must not move to an attacked square, castling is only allowed
+ * if the king is not in check and does not pass or reach an attacked
+ * square</li>
+ * </ul>
+ * Only en passant captures (which remove two pieces from a line) are checked
+ * by looking at the position after the move. A board without a king of the
+ * side to move is never in check.
+ *
+ * An instance can be reused for any number of positions, but not by several
+ * threads at once.
+ */
+public class LegalMoveGenerator {
+
+	// generation modes
+	public static final int All = 0;
+	public static final int Captures = 1;
+	public static final int Quiets = 2;
+
+	// all king path squares that must not be attacked when castling
+	private static final long whiteCastlingLeftSafe = 1L << 58 | 1L << 59;
+	private static final long whiteCastlingRightSafe = 1L << 61 | 1L << 62;
+	private static final long blackCastlingLeftSafe = 1L << 2 | 1L << 3;
+	private static final long blackCastlingRightSafe = 1L << 5 | 1L << 6;
+
+	// state of the position set by init
+	private Board board;
+	private int color;
+	private int opponentColor;
+	private int kingSquare;
+	private long own;
+	private long opponent;
+	private long occupancy;
+	private long checkers;
+	private long pinned;
+	// target squares for all pieces except the king
+	private long checkMask;
+	// moves of one piece, for castling in isLegal and for counting pawn moves
+	private final MoveList singlePieceMoves = new MoveList(32);
+
+	/**
+	 * Adds all legal moves of the side to move to moves
+	 *
+	 * @param board the position
+	 * @param moves list the packed moves are added to
+	 */
+	public void generate(Board board, MoveList moves) {
+		generate(board, moves, All);
+	}
+
+	/**
+	 * Adds the legal moves of the side to move to moves
+	 *
+	 * @param board the position
+	 * @param moves list the packed moves are added to
+	 * @param mode  All, Captures (captures and promotions) or Quiets (all other
+	 *              moves)
+	 */
+	public void generate(Board board, MoveList moves, int mode) {
+		init(board);
+		long targetMask = mode == Captures ? opponent : mode == Quiets ? ~occupancy : ~0L;
+
+		generateKingMoves(moves, targetMask, mode);
+		// in double check only the king can move
+		if (checkMask == 0)
+			return;
+
+		long pieces = own & ~board.getTypeBitboard(Piece.King);
+		while (pieces != 0) {
+			generatePieceMoves(Long.numberOfTrailingZeros(pieces), moves, targetMask, mode);
+			pieces &= pieces - 1;
+		}
+	}
+
+	/**
+	 * Counts the legal moves of the side to move without adding them to a list.
+	 * The moves of knights, bishops, rooks and queens are counted as bits of
+	 * their target squares.
+	 *
+	 * @param board the position
+	 * @return number of legal moves
+	 */
+	public int countLegalMoves(Board board) {
+		return count(board, false);
+	}
+
+	/**
+	 * Stops at the first legal move, which is much faster than counting all moves
+	 * in most positions. Checkmate and stalemate are the positions without any.
+	 *
+	 * @param board the position
+	 * @return true if the side to move has a legal move
+	 */
+	public boolean hasAnyLegalMove(Board board) {
+		return count(board, true) != 0;
+	}
+
+	private int count(Board board, boolean stopAtFirst) {
+		init(board);
+		singlePieceMoves.clear();
+		generateKingMoves(singlePieceMoves, ~0L, All);
+		int count = singlePieceMoves.size();
+		if (checkMask == 0 || stopAtFirst && count != 0)
+			return count;
+
+		long pieces = own & ~board.getTypeBitboard(Piece.King);
+		while (pieces != 0) {
+			int square = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			int type = board.getPieceAt(square) & Piece.typeMask;
+			if (type == Piece.Pawn) {
+				singlePieceMoves.clear();
+				generatePawnMoves(square, singlePieceMoves, All);
+				count += singlePieceMoves.size();
+			} else {
+				count += Long.bitCount(legalTargets(square, pieceAttacks(type, square)));
+			}
+			if (stopAtFirst && count != 0)
+				return count;
+		}
+		return count;
+	}
+
+	/**
+	 * Checks one move that was not generated for this position, for example user
+	 * input or a move from a hash table. Only the move itself is tested with
+	 * attack lookups: the piece must be able to reach the target, pinned pieces
+	 * must stay on the line to the king and a check must be answered.
+	 *
+	 * @param board the position
+	 * @param move  a packed move including its flag
+	 * @return true if move is a legal move of the side to move
+	 */
+	public boolean isLegal(Board board, int move) {
+		int start = Move.startSquareOf(move);
+		int target = Move.targetSquareOf(move);
+		int flag = Move.flagOf(move);
+		int piece = board.getPieceAt(start);
+		if ((piece & Piece.colorMask) != board.getTurnColor() || start == target)
+			return false;
+		init(board);
+		long targetBit = 1L << target;
+		if ((own & targetBit) != 0)
+			return false;
+
+		int type = piece & Piece.typeMask;
+		if (type == Piece.King) {
+			if (start != kingSquare)
+				return false;
+			if (flag == Move.Castling) {
+				// rare enough to generate the king moves
+				singlePieceMoves.clear();
+				generateKingMoves(singlePieceMoves, ~0L, All);
+				return singlePieceMoves.contains(move);
+			}
+			return flag == 0 && (LeaperAttacks.kingAttacks(start) & targetBit) != 0
+					&& attackers(target, occupancy & ~(1L << start)) == 0;
+		}
+		// in double check only the king can move
+		if (checkMask == 0)
+			return false;
+		if (type == Piece.Pawn)
+			return isLegalPawnMove(start, target, flag);
+		return flag == 0 && (legalTargets(start, pieceAttacks(type, start)) & targetBit) != 0;
+	}
+
+	private boolean isLegalPawnMove(int start, int target, int flag) {
+		int direction = color == Piece.Black ? MoveGenerator.DOWN : MoveGenerator.UP;
+		long targetBit = 1L << target;
+		long allowed = checkMask;
+		if ((pinned & 1L << start) != 0)
+			allowed &= SlidingAttacks.line(kingSquare, start);
+
+		if (flag == Move.EnPassantCapture) {
+			int enPassantSquare = board.getEnPassantSquare();
+			return 0 < enPassantSquare && target == enPassantSquare
+					&& (LeaperAttacks.pawnAttacks(start, color) & targetBit) != 0
+					&& board.getPieceAt(target - direction) == Piece.Pawn + opponentColor
+					&& isLegalEnPassant(start, target, target - direction);
+		}
+		if (flag == Move.PawnTwoForward) {
+			int rank = Coordinate.rankOf(start);
+			return target == start + 2 * direction
+					&& (rank == 1 && color == Piece.Black || rank == 6 && color == Piece.White)
+					&& (occupancy & (1L << start + direction | targetBit)) == 0 && (allowed & targetBit) != 0;
+		}
+		// a pawn reaching the last rank must promote
+		boolean promotion = Move.PromoteToKnight <= flag && flag <= Move.PromoteToQueen;
+		if (flag != 0 && !promotion
+				|| promotion != ((MoveGeneratorPawn.promotionSquares & targetBit) != 0))
+			return false;
+		if (target == start + direction)
+			return (occupancy & targetBit) == 0 && (allowed & targetBit) != 0;
+		return (LeaperAttacks.pawnAttacks(start, color) & opponent & allowed & targetBit) != 0;
+	}
+
+	/**
+	 * @return the number of pieces giving check in the last generated position
+	 */
+	public int getCheckCount() {
+		return Long.bitCount(checkers);
+	}
+
+	/**
+	 * @return true if the side to move was in check in the last generated
+	 *         position
+	 */
+	public boolean isInCheck() {
+		return checkers != 0;
+	}
+
+	private void generatePieceMoves(int square, MoveList moves, long targetMask, int mode) {
+		int type = board.getPieceAt(square) & Piece.typeMask;
+		if (type == Piece.Pawn)
+			generatePawnMoves(square, moves, mode);
+		else
+			MoveGenerator.addMoves(moves, square, legalTargets(square, pieceAttacks(type, square) & targetMask));
+	}
+
+	// attacked squares of a knight, bishop, rook or queen
+	private long pieceAttacks(int type, int square) {
+		switch (type) {
+			case Piece.Knight:
+				return LeaperAttacks.knightAttacks(square);
+			case Piece.Bishop:
+				return SlidingAttacks.bishopAttacks(square, occupancy);
+			case Piece.Rook:
+				return SlidingAttacks.rookAttacks(square, occupancy);
+			case Piece.Queen:
+				return SlidingAttacks.queenAttacks(square, occupancy);
+			default:
+				return 0;
+		}
+	}
+
+	// compute checking and pinned pieces of the position
+	private void init(Board board) {
+		this.board = board;
+		color = board.getTurnColor();
+		opponentColor = color == Piece.White ? Piece.Black : Piece.White;
+		own = board.getColorBitboard(color);
+		opponent = board.getColorBitboard(opponentColor);
+		occupancy = own | opponent;
+		checkers = 0;
+		pinned = 0;
+		checkMask = ~0L;
+
+		kingSquare = board.getKingSquare(color);
+		if (kingSquare < 0)
+			return;
+		checkers = attackers(kingSquare, occupancy);
+		if (checkers != 0) {
+			checkMask = Long.bitCount(checkers) == 1
+					? checkers | SlidingAttacks.between(kingSquare, Long.numberOfTrailingZeros(checkers))
+					: 0;
+		}
+
+		// opponent sliders that would attack the king without pieces in between
+		long snipers = SlidingAttacks.rookAttacks(kingSquare, 0) & opponentRooksAndQueens()
+				| SlidingAttacks.bishopAttacks(kingSquare, 0) & opponentBishopsAndQueens();
+		while (snipers != 0) {
+			long blockers = SlidingAttacks.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupancy;
+			if (Long.bitCount(blockers) == 1)
+				pinned |= blockers & own;
+			snipers &= snipers - 1;
+		}
+	}
+
+	private long opponentRooksAndQueens() {
+		return (board.getTypeBitboard(Piece.Rook) | board.getTypeBitboard(Piece.Queen)) & opponent;
+	}
+
+	private long opponentBishopsAndQueens() {
+		return (board.getTypeBitboard(Piece.Bishop) | board.getTypeBitboard(Piece.Queen)) & opponent;
+	}
+
+	// opponent pieces attacking square with the given occupancy
+	private long attackers(int square, long occupancy) {
+		return board.attackersOf(square, occupancy) & opponent;
+	}
+
+	// restricts the targets of the piece on square by check and pin
+	private long legalTargets(int square, long targets) {
+		targets &= ~own & checkMask;
+		if ((pinned & 1L << square) != 0)
+			targets &= SlidingAttacks.line(kingSquare, square);
+		return targets;
+	}
+
+	private void generateKingMoves(MoveList moves, long targetMask, int mode) {
+		if (kingSquare < 0)
+			return;
+		// the king must not hide behind itself from a slider
+		long occupancyWithoutKing = occupancy & ~(1L << kingSquare);
+		long targets = LeaperAttacks.kingAttacks(kingSquare) & ~own & targetMask;
+		while (targets != 0) {
+			int target = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			if (attackers(target, occupancyWithoutKing) == 0)
+				moves.add(Move.encode(kingSquare, target, 0));
+		}
+
+		if (mode == Captures || checkers != 0)
+			return;
+		if (color == Piece.White && kingSquare == Board.whiteKingPosition) {
+			if (board.isCastlingA1Possible())
+				addCastling(moves, 56, Board.whiteCastlingPositionLeft, MoveGeneratorKing.whiteCastlingLeftPath,
+						whiteCastlingLeftSafe);
+			if (board.isCastlingH1Possible())
+				addCastling(moves, 63, Board.whiteCastlingPositionRight, MoveGeneratorKing.whiteCastlingRightPath,
+						whiteCastlingRightSafe);
+		} else if (color == Piece.Black && kingSquare == Board.blackKingPosition) {
+			if (board.isCastlingA8Possible())
+				addCastling(moves, 0, Board.blackCastlingPositionLeft, MoveGeneratorKing.blackCastlingLeftPath,
+						blackCastlingLeftSafe);
+			if (board.isCastlingH8Possible())
+				addCastling(moves, 7, Board.blackCastlingPositionRight, MoveGeneratorKing.blackCastlingRightPath,
+						blackCastlingRightSafe);
+		}
+	}
+
+	private void addCastling(MoveList moves, int rookSquare, int target, long path, long safe) {
+		if ((occupancy & path) != 0 || board.getPieceAt(rookSquare) != Piece.Rook + color)
+			return;
+		while (safe != 0) {
+			if (board.isSquareAttacked(Long.numberOfTrailingZeros(safe), opponentColor))
+				return;
+			safe &= safe - 1;
+		}
+		moves.add(Move.encode(kingSquare, target, Move.Castling));
+	}
+
+	private void generatePawnMoves(int square, MoveList moves, int mode) {
+		int direction = color == Piece.Black ? MoveGenerator.DOWN : MoveGenerator.UP;
+		int forward = square + direction;
+		if (forward < 0 || 63 < forward)
+			return;
+		long allowed = checkMask;
+		if ((pinned & 1L << square) != 0)
+			allowed &= SlidingAttacks.line(kingSquare, square);
+
+		// pushes, promotions count as captures
+		long empty = ~occupancy;
+		if ((empty & 1L << forward) != 0) {
+			boolean promotion = (MoveGeneratorPawn.promotionSquares & 1L << forward) != 0;
+			if ((allowed & 1L << forward) != 0 && (mode == All || promotion == (mode == Captures)))
+				addPawnMoves(moves, square, forward);
+			int rank = Coordinate.rankOf(square);
+			int twoForward = forward + direction;
+			if (mode != Captures && (rank == 1 && color == Piece.Black || rank == 6 && color == Piece.White)
+					&& (empty & allowed & 1L << twoForward) != 0)
+				moves.add(Move.encode(square, twoForward, Move.PawnTwoForward));
+		}
+		if (mode == Quiets)
+			return;
+
+		long attacks = LeaperAttacks.pawnAttacks(square, color);
+		long captures = attacks & opponent & allowed;
+		while (captures != 0) {
+			addPawnMoves(moves, square, Long.numberOfTrailingZeros(captures));
+			captures &= captures - 1;
+		}
+
+		int enPassantSquare = board.getEnPassantSquare();
+		if (0 < enPassantSquare && (attacks & 1L << enPassantSquare) != 0
+				&& board.getPieceAt(enPassantSquare - direction) == Piece.Pawn + opponentColor
+				&& isLegalEnPassant(square, enPassantSquare, enPassantSquare - direction))
+			moves.add(Move.encode(square, enPassantSquare, Move.EnPassantCapture));
+	}
+
+	// look at the position after the capture, two pieces leave the rank
+	private boolean isLegalEnPassant(int square, int target, int captureSquare) {
+		if (kingSquare < 0)
+			return true;
+		long after = occupancy & ~(1L << square | 1L << captureSquare) | 1L << target;
+		return (attackers(kingSquare, after) & ~(1L << captureSquare)) == 0;
+	}
+
+	// add the move or all promotion moves if the pawn reaches the last rank
+	private static void addPawnMoves(MoveList moves, int square, int target) {
+		if ((MoveGeneratorPawn.promotionSquares & 1L << target) == 0) {
+			moves.add(Move.encode(square, target, 0));
+			return;
+		}
+		moves.add(Move.encode(square, target, Move.PromoteToQueen));
+		moves.add(Move.encode(square, target, Move.PromoteToKnight));
+		moves.add(Move.encode(square, target, Move.PromoteToBishop));
+		moves.add(Move.encode(square, target, Move.PromoteToRook));
+	}
+}
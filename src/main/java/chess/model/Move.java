@@ -16,6 +16,12 @@ public class Move implements Serializable {
 	public static final int PromoteToQueen = Piece.Queen; // 6
 	public static final int Castling = 7;
 
+	// packed int representation as used by MoveList:
+	// bits 0-5 start square, bits 6-11 target square, bits 12-14 flag
+	private static final int squareMask = 0b111111;
+	private static final int targetShift = 6;
+	private static final int flagShift = 12;
+
 	private final int startSquare;
 	private final int targetSquare;
 	private int flag;
@@ -81,6 +87,68 @@ public class Move implements Serializable {
 		return move;
 	}
 
+	/**
+	 * Packs a move into a single int
+	 * 
+	 * @param startSquare  Integer representation starting square
+	 * @param targetSquare Integer representation of the target square
+	 * @param flag         any of the flags 0 to 7
+	 * @return the packed move
+	 */
+	public static int encode(int startSquare, int targetSquare, int flag) {
+		return startSquare | targetSquare << targetShift | flag << flagShift;
+	}
+
+	/**
+	 * @param move a packed move
+	 * @return the starting square of the packed move
+	 */
+	public static int startSquareOf(int move) {
+		return move & squareMask;
+	}
+
+	/**
+	 * @param move a packed move
+	 * @return the target square of the packed move
+	 */
+	public static int targetSquareOf(int move) {
+		return move >>> targetShift & squareMask;
+	}
+
+	/**
+	 * @param move a packed move
+	 * @return the flag of the packed move
+	 */
+	public static int flagOf(int move) {
+		return move >>> flagShift;
+	}
+
+	/**
+	 * @param move a packed move
+	 * @return index 0 to 4095 of the start and target square, for tables of
+	 *         move statistics
+	 */
+	public static int historyIndex(int move) {
+		return move & (1 << flagShift) - 1;
+	}
+
+	/**
+	 * Creates a Move object from a packed move
+	 * 
+	 * @param move a packed move
+	 * @return the equivalent Move object
+	 */
+	public static Move decode(int move) {
+		return new Move(startSquareOf(move), targetSquareOf(move), flagOf(move));
+	}
+
+	/**
+	 * @return this move packed into a single int
+	 */
+	public int encode() {
+		return encode(startSquare, targetSquare, flag);
+	}
+
 	/**
 	 * @return the starting square
 	 */
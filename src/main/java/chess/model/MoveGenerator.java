@@ -1,6 +1,5 @@
 package chess.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -20,8 +19,6 @@ public class MoveGenerator {
 	public static final int DOWNRIGHT = 9;
 
 	private final Board board;
-	private final List<Integer> whitePiecePositions;
-	private final List<Integer> blackPiecePositions;
 
 	private int teamColor, opponentColor;
 
@@ -32,8 +29,6 @@ public class MoveGenerator {
 	 */
 	public MoveGenerator(Board board) {
 		this.board = board;
-		whitePiecePositions = board.getPiecePositionsFor(Piece.White);
-		blackPiecePositions = board.getPiecePositionsFor(Piece.Black);
 		teamColor = board.getTurnColor();
 		opponentColor = teamColor == Piece.White ? Piece.Black : Piece.White;
 	}
@@ -115,13 +110,22 @@ public class MoveGenerator {
 	 * @return ArrayList of Move objects
 	 */
 	public List<Move> generateMoves() {
-		List<Move> generatedMoves = new ArrayList<>();
-		List<Integer> teamPositions = teamColor == Piece.Black ? blackPiecePositions : whitePiecePositions;
+		MoveList moves = new MoveList();
+		generateMoves(moves);
+		return moves.toMoves();
+	}
 
-		for (int position : teamPositions) {
-			generatedMoves.addAll(generateMovesStartingAt(position));
+	/**
+	 * Adds the possible moves for current color to moves
+	 * 
+	 * @param moves list the packed moves are added to
+	 */
+	public void generateMoves(MoveList moves) {
+		long teamPositions = board.getColorBitboard(teamColor);
+		while (teamPositions != 0) {
+			generateMovesStartingAt(Long.numberOfTrailingZeros(teamPositions), moves);
+			teamPositions &= teamPositions - 1;
 		}
-		return generatedMoves;
 	}
 
 	/**
@@ -132,20 +136,52 @@ public class MoveGenerator {
 	 * @return ArrayList of Move objects
 	 */
 	public List<Move> generateMovesStartingAt(int startSquare) {
+		MoveList moves = new MoveList(32);
+		generateMovesStartingAt(startSquare, moves);
+		return moves.toMoves();
+	}
+
+	/**
+	 * Adds all possible moves for any piece standing on a given square to moves
+	 * 
+	 * @param startSquare the starting square
+	 * @param moves       list the packed moves are added to
+	 */
+	public void generateMovesStartingAt(int startSquare, MoveList moves) {
 		switch (Piece.getType(board.getPieceAt(startSquare))) {
 			case Piece.Pawn:
-				return MoveGeneratorPawn.generatePawnMoves(board, startSquare);
+				MoveGeneratorPawn.generatePawnMoves(board, startSquare, moves);
+				break;
 			case Piece.Queen:
-				return generateQueenMoves(startSquare);
+				MoveGeneratorDirectional.generateDiagonalMoves(board, startSquare, moves);
+				MoveGeneratorDirectional.generateAcrossMoves(board, startSquare, moves);
+				break;
 			case Piece.Bishop:
-				return generateBishopMoves(startSquare);
+				MoveGeneratorDirectional.generateDiagonalMoves(board, startSquare, moves);
+				break;
 			case Piece.Rook:
-				return generateRookMoves(startSquare);
+				MoveGeneratorDirectional.generateAcrossMoves(board, startSquare, moves);
+				break;
 			case Piece.Knight:
-				return generateKnightMoves(startSquare);
+				MoveGeneratorKnight.generateKnightMoves(board, startSquare, teamColor, moves);
+				break;
 			case Piece.King:
-				return MoveGeneratorKing.generateKingMoves(board, startSquare);
+				MoveGeneratorKing.generateKingMoves(board, startSquare, moves);
+				break;
+		}
+	}
+
+	/**
+	 * Adds a move from startSquare to every square set in targets
+	 * 
+	 * @param moves       the list to add the packed moves to
+	 * @param startSquare the position of the moving piece
+	 * @param targets     bitboard of target squares
+	 */
+	static void addMoves(MoveList moves, int startSquare, long targets) {
+		while (targets != 0) {
+			moves.add(Move.encode(startSquare, Long.numberOfTrailingZeros(targets), 0));
+			targets &= targets - 1;
 		}
-		return new ArrayList<>();
 	}
 }
@@ -1,6 +1,5 @@
 package chess.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,81 +15,51 @@ public class MoveGeneratorDirectional {
 	 * @return ArrayList of Move objects
 	 */
 	public static List<Move> generateAcrossMoves(Board board, int startSquare) {
-		List<Integer> directions = generateStartingDirectionsAcross(startSquare);
-		return generateDirectionalMoves(board, startSquare, directions);
+		MoveList moves = new MoveList(14);
+		generateAcrossMoves(board, startSquare, moves);
+		return moves.toMoves();
 	}
 
 	/**
-	 * Generate diagonal moves
+	 * Adds the moves across the current file and rank to moves
 	 * 
 	 * @param board       current game board
 	 * @param startSquare the position of the piece
-	 * @return ArrayList of Move objects
+	 * @param moves       list the packed moves are added to
 	 */
-	public static List<Move> generateDiagonalMoves(Board board, int startSquare) {
-		List<Integer> directions = generateStartingDirectionsDiagonal(startSquare);
-		return generateDirectionalMoves(board, startSquare, directions);
-	}
-
-	// Walks in each direction until border of the board or another piece is reached
-	private static List<Move> generateDirectionalMoves(Board board, int startSquare, List<Integer> directions) {
-		int teamColor = Piece.getColor(board.getPieceAt(startSquare));
-		int opponentColor = (teamColor == Piece.White) ? Piece.Black : Piece.White;
-		List<Move> generatedMoves = new ArrayList<>();
-		int currentSquare;
-		int piece;
-		for (int direction : directions) {
-			currentSquare = startSquare;
-			do {
-				currentSquare += direction;
-				piece = board.getPieceAt(currentSquare);
-				if (Piece.isType(piece, Piece.None) || Piece.isColor(piece, opponentColor)) {
-					generatedMoves.add(new Move(startSquare, currentSquare));
-					if (Piece.isColor(piece, opponentColor))
-						break;
-				}
-				if (Piece.isColor(piece, teamColor))
-					break;
-			} while (!Coordinate.isOnBorderTowards(currentSquare, direction));
-		}
-		return generatedMoves;
+	public static void generateAcrossMoves(Board board, int startSquare, MoveList moves) {
+		long attacks = SlidingAttacks.rookAttacks(startSquare, board.getOccupancy());
+		generateDirectionalMoves(board, startSquare, attacks, moves);
 	}
 
 	/**
-	 * Make sure to not walk off the board
+	 * Generate diagonal moves
 	 * 
-	 * @param startSquare position of the piece
-	 * @return returns suitable directions
+	 * @param board       current game board
+	 * @param startSquare the position of the piece
+	 * @return ArrayList of Move objects
 	 */
-	public static List<Integer> generateStartingDirectionsAcross(int startSquare) {
-		List<Integer> directions = new ArrayList<>();
-		if (!Coordinate.isOnLeftBorder(startSquare))
-			directions.add(MoveGenerator.LEFT);
-		if (!Coordinate.isOnRightBorder(startSquare))
-			directions.add(MoveGenerator.RIGHT);
-		if (!Coordinate.isOnUpperBorder(startSquare))
-			directions.add(MoveGenerator.UP);
-		if (!Coordinate.isOnLowerBorder(startSquare))
-			directions.add(MoveGenerator.DOWN);
-		return directions;
+	public static List<Move> generateDiagonalMoves(Board board, int startSquare) {
+		MoveList moves = new MoveList(13);
+		generateDiagonalMoves(board, startSquare, moves);
+		return moves.toMoves();
 	}
 
 	/**
-	 * Make sure to not walk off the board
+	 * Adds the diagonal moves to moves
 	 * 
-	 * @param startSquare position of the piece
-	 * @return returns suitable directions
+	 * @param board       current game board
+	 * @param startSquare the position of the piece
+	 * @param moves       list the packed moves are added to
 	 */
-	public static List<Integer> generateStartingDirectionsDiagonal(int startSquare) {
-		List<Integer> directions = new ArrayList<>();
-		if (!Coordinate.isOnLeftBorder(startSquare) && !Coordinate.isOnUpperBorder(startSquare))
-			directions.add(MoveGenerator.UPLEFT);
-		if (!Coordinate.isOnRightBorder(startSquare) && !Coordinate.isOnUpperBorder(startSquare))
-			directions.add(MoveGenerator.UPRIGHT);
-		if (!Coordinate.isOnLeftBorder(startSquare) && !Coordinate.isOnLowerBorder(startSquare))
-			directions.add(MoveGenerator.DOWNLEFT);
-		if (!Coordinate.isOnRightBorder(startSquare) && !Coordinate.isOnLowerBorder(startSquare))
-			directions.add(MoveGenerator.DOWNRIGHT);
-		return directions;
+	public static void generateDiagonalMoves(Board board, int startSquare, MoveList moves) {
+		long attacks = SlidingAttacks.bishopAttacks(startSquare, board.getOccupancy());
+		generateDirectionalMoves(board, startSquare, attacks, moves);
+	}
+
+	// Every attacked square that is not occupied by the own team is a target
+	private static void generateDirectionalMoves(Board board, int startSquare, long attacks, MoveList moves) {
+		long targets = attacks & ~board.getColorBitboard(Piece.getColor(board.getPieceAt(startSquare)));
+		MoveGenerator.addMoves(moves, startSquare, targets);
 	}
 }
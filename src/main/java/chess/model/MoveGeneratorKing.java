@@ -1,6 +1,5 @@
 package chess.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -8,61 +7,11 @@ import java.util.List;
  */
 public class MoveGeneratorKing {
 
-	// Walk from king to rook checking for pieces in between
-	private static boolean[] castlingWalker(Board board, int[] stops, boolean[] boardFlags, int startSquare) {
-		boolean[] result = new boolean[] { true, true };
-		int direction;
-		for (int i = 0; i < 2; i++) {
-			if (!boardFlags[i]) {
-				result[i] = false;
-				continue;
-			}
-			direction = 2 * i - 1;
-			for (int step = 1; step < stops[i]; step++) {
-				if (!Piece.isType(board.getPieceAt(startSquare + direction * step), Piece.None)) {
-					result[i] = false;
-				}
-			}
-		}
-		return result;
-	}
-
-
-    private static boolean[] isBlackCastlingPossible(Board board) {
-        int[] stops = new int[] {4, 3};
-        boolean[] boardFlags = new boolean[]{
-                board.isCastlingA8Possible(),
-                board.isCastlingH8Possible()
-        };
-        return castlingWalker(board, stops, boardFlags, Board.blackKingPosition);
-    }
-
-
-    private static boolean[] isWhiteCastlingPossible(Board board) {
-        int[] stops = new int[] {4, 3};
-        boolean[] boardFlags = new boolean[]{
-                board.isCastlingA1Possible(),
-                board.isCastlingH1Possible()
-        };
-        return castlingWalker(board, stops, boardFlags, Board.whiteKingPosition);
-    }
-
-
-    /**
-     * Checks whether castling for current color is possible
-     * @return array of two booleans {leftCastlingPossible, rightCastlingPossible}
-     */
-    private static boolean[] isCastlingPossible(Board board, int startSquare) {
-        if (startSquare == Board.blackKingPosition) {
-            return isBlackCastlingPossible(board);
-        }
-        else if (startSquare == Board.whiteKingPosition) {
-            return isWhiteCastlingPossible(board);
-        }
-        else {
-            return new boolean[]{false, false};
-        }
-    }
+	// squares between king and rook that need to be empty for castling
+	static final long whiteCastlingLeftPath = 1L << 57 | 1L << 58 | 1L << 59;
+	static final long whiteCastlingRightPath = 1L << 61 | 1L << 62;
+	static final long blackCastlingLeftPath = 1L << 1 | 1L << 2 | 1L << 3;
+	static final long blackCastlingRightPath = 1L << 5 | 1L << 6;
 
 	/**
 	 * Generate moves for the king
@@ -72,30 +21,36 @@ public class MoveGeneratorKing {
 	 * @return ArrayList of Move objects
 	 */
 	public static List<Move> generateKingMoves(Board board, int startSquare) {
-		// normal movement
-		List<Move> generatedMoves = new ArrayList<>();
-		List<Integer> directions = MoveGeneratorDirectional.generateStartingDirectionsAcross(startSquare);
-		directions.addAll(MoveGeneratorDirectional.generateStartingDirectionsDiagonal(startSquare));
-
-        int targetSquare, piece;
-        for (int direction : directions) {
-            targetSquare = startSquare + direction;
-            piece = board.getPieceAt(targetSquare);
-            if (Piece.getColor(piece).equals(Piece.getColor(board.getPieceAt(startSquare))))
-                continue;
-            generatedMoves.add(new Move(startSquare, targetSquare));
-        }
+		MoveList moves = new MoveList(10);
+		generateKingMoves(board, startSquare, moves);
+		return moves.toMoves();
+	}
 
-        // castling
-        boolean[] castlingPossible = isCastlingPossible(board, startSquare);
-        if (castlingPossible[0]) {
-            targetSquare = Piece.isColor(board.getPieceAt(startSquare), Piece.Black) ? Board.blackCastlingPositionLeft : Board.whiteCastlingPositionLeft;
-            generatedMoves.add(new Move(startSquare, targetSquare, Move.Castling));
-        }
-        if (castlingPossible[1]) {
-            targetSquare = Piece.isColor(board.getPieceAt(startSquare), Piece.Black) ? Board.blackCastlingPositionRight : Board.whiteCastlingPositionRight;
-            generatedMoves.add(new Move(startSquare, targetSquare, Move.Castling));
-        }
-        return generatedMoves;
-    }
+	/**
+	 * Adds the possible king moves to moves
+	 *
+	 * @param board          current game board
+	 * @param startSquare    the start position of the king
+	 * @param generatedMoves list the packed moves are added to
+	 */
+	public static void generateKingMoves(Board board, int startSquare, MoveList generatedMoves) {
+		// normal movement
+		int color = Piece.getColor(board.getPieceAt(startSquare));
+		long targets = LeaperAttacks.kingAttacks(startSquare) & ~board.getColorBitboard(color);
+		MoveGenerator.addMoves(generatedMoves, startSquare, targets);
+
+		// castling
+		long empty = ~board.getOccupancy();
+		if (startSquare == Board.whiteKingPosition) {
+			if (board.isCastlingA1Possible() && (whiteCastlingLeftPath & empty) == whiteCastlingLeftPath)
+				generatedMoves.add(Move.encode(startSquare, Board.whiteCastlingPositionLeft, Move.Castling));
+			if (board.isCastlingH1Possible() && (whiteCastlingRightPath & empty) == whiteCastlingRightPath)
+				generatedMoves.add(Move.encode(startSquare, Board.whiteCastlingPositionRight, Move.Castling));
+		} else if (startSquare == Board.blackKingPosition) {
+			if (board.isCastlingA8Possible() && (blackCastlingLeftPath & empty) == blackCastlingLeftPath)
+				generatedMoves.add(Move.encode(startSquare, Board.blackCastlingPositionLeft, Move.Castling));
+			if (board.isCastlingH8Possible() && (blackCastlingRightPath & empty) == blackCastlingRightPath)
+				generatedMoves.add(Move.encode(startSquare, Board.blackCastlingPositionRight, Move.Castling));
+		}
+	}
 }
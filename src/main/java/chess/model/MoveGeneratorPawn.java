@@ -1,6 +1,5 @@
 package chess.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -8,6 +7,9 @@ import java.util.List;
  */
 public class MoveGeneratorPawn {
 
+	// the first and the last rank, pawns reaching them are promoted
+	static final long promotionSquares = 0xFF000000000000FFL;
+
 	/**
 	 * Generate list of possible pawn moves
 	 * 
@@ -16,90 +18,60 @@ public class MoveGeneratorPawn {
 	 * @return ArrayList of Move objects
 	 */
 	public static List<Move> generatePawnMoves(Board board, int startSquare) {
-		List<Move> generatedMoves = new ArrayList<>();
-		int direction = Piece.getColor(board.getPieceAt(startSquare)) == Piece.Black ? MoveGenerator.DOWN
-				: MoveGenerator.UP;
-
-		// move forward if possible
-		moveForward(board, generatedMoves, direction, startSquare);
-
-		// if still in starting row, move two squares forward
-		moveTwoForward(board, generatedMoves, direction, startSquare);
-
-		// if possible, capture diagonal pieces
-		captureDiagonal(board, generatedMoves, direction, startSquare);
-		return generatedMoves;
+		MoveList moves = new MoveList(12);
+		generatePawnMoves(board, startSquare, moves);
+		return moves.toMoves();
 	}
 
-	// Move pawn one square forward
-	private static void moveForward(Board board, List<Move> generatedMoves, int direction, int startSquare) {
+	/**
+	 * Adds the possible pawn moves to generatedMoves
+	 * 
+	 * @param board          current game board
+	 * @param startSquare    the position of the pawn
+	 * @param generatedMoves list the packed moves are added to
+	 */
+	public static void generatePawnMoves(Board board, int startSquare, MoveList generatedMoves) {
+		int color = Piece.getColor(board.getPieceAt(startSquare));
+		int direction = color == Piece.Black ? MoveGenerator.DOWN : MoveGenerator.UP;
 		int forwardPosition = startSquare + direction;
-		if (!Coordinate.isOnUpperBorder(forwardPosition) && !Coordinate.isOnLowerBorder(forwardPosition)
-				&& board.getPieceAt(forwardPosition) == Piece.None) {
-			generatedMoves.add(new Move(startSquare, forwardPosition));
-		}
+		if (forwardPosition < 0 || 63 < forwardPosition)
+			return;
 
-		// if moving forward lead to the last square in the file, promoting the piece is
-		// possible
-		if (board.getPieceAt(forwardPosition) == Piece.None
-				&& (Coordinate.isOnUpperBorder(forwardPosition) || Coordinate.isOnLowerBorder(forwardPosition))) {
-			addPromotionMoves(generatedMoves, startSquare, forwardPosition);
+		// move forward if possible, if still in starting row even two squares
+		long empty = ~board.getOccupancy();
+		if ((empty & 1L << forwardPosition) != 0) {
+			addMoves(generatedMoves, startSquare, forwardPosition);
+			int rank = Coordinate.rankOf(startSquare);
+			if ((rank == 1 && color == Piece.Black || rank == 6 && color == Piece.White)
+					&& (empty & 1L << (forwardPosition + direction)) != 0)
+				generatedMoves.add(Move.encode(startSquare, forwardPosition + direction, Move.PawnTwoForward));
 		}
-	}
 
-	// Move pawn two squares forward
-	private static void moveTwoForward(Board board, List<Move> generatedMoves, int direction, int startSquare) {
-		// don't jump over a piece
-		int forwardPosition = startSquare + direction;
-		if (board.getPieceAt(forwardPosition) != 0)
-			return;
-		forwardPosition += direction;
-		int rank = Coordinate.fromIndex(startSquare)[1];
-		if ((rank == 1 && direction == MoveGenerator.DOWN || rank == 6 && direction == MoveGenerator.UP)
-				&& board.getPieceAt(forwardPosition) == Piece.None) {
-			generatedMoves.add(new Move(startSquare, forwardPosition, Move.PawnTwoForward));
+		// if possible, capture diagonal pieces
+		int opponentColor = color == Piece.Black ? Piece.White : Piece.Black;
+		long attacks = LeaperAttacks.pawnAttacks(startSquare, color);
+		long captures = attacks & board.getColorBitboard(opponentColor);
+		while (captures != 0) {
+			addMoves(generatedMoves, startSquare, Long.numberOfTrailingZeros(captures));
+			captures &= captures - 1;
 		}
-	}
 
-	// perform diagonal capturing
-	private static void captureDiagonal(Board board, List<Move> generatedMoves, int direction, int startSquare) {
-		int diagonalPosition;
-		int[] positionalValues = new int[] {startSquare, direction, 0};
-		if (!Coordinate.isOnLeftBorder(startSquare)) {
-			diagonalPosition = startSquare + direction + MoveGenerator.LEFT;
-			positionalValues[2] = diagonalPosition;
-			captureDiagonalToward(board, generatedMoves, positionalValues);
-		}
-		if (!Coordinate.isOnRightBorder(startSquare)) {
-			diagonalPosition = startSquare + direction + MoveGenerator.RIGHT;
-			positionalValues[2] = diagonalPosition;
-			captureDiagonalToward(board, generatedMoves, positionalValues);
-		}
+		// capture en passant
+		int enPassantSquare = board.getEnPassantSquare();
+		if (0 <= enPassantSquare && (attacks & 1L << enPassantSquare) != 0
+				&& Piece.isColor(board.getPieceAt(enPassantSquare - direction), opponentColor))
+			generatedMoves.add(Move.encode(startSquare, enPassantSquare, Move.EnPassantCapture));
 	}
 
-	// capture either diagonal right or left
-	private static void captureDiagonalToward(Board board, List<Move> generatedMoves, int[] positionalValues) {
-		int startSquare = positionalValues[0];
-		int direction = positionalValues[1];
-		int diagonalPosition = positionalValues[2];
-		int opponentColor = Piece.getColor(board.getPieceAt(startSquare)) == Piece.Black ? Piece.White : Piece.Black;
-
-		if (Piece.isColor(board.getPieceAt(diagonalPosition), opponentColor)) {
-			if (Coordinate.isOnUpperBorder(diagonalPosition) || Coordinate.isOnLowerBorder(diagonalPosition)) {
-				addPromotionMoves(generatedMoves, startSquare, diagonalPosition);
-			} else {
-				generatedMoves.add(new Move(startSquare, diagonalPosition));
-			}
+	// add the move or all promotion moves if the pawn reaches the last rank
+	private static void addMoves(MoveList generatedMoves, int startSquare, int targetSquare) {
+		if ((promotionSquares & 1L << targetSquare) == 0) {
+			generatedMoves.add(Move.encode(startSquare, targetSquare, 0));
+			return;
 		}
-		if (board.getEnPassantSquare() == diagonalPosition
-				&& Piece.isColor(board.getPieceAt(diagonalPosition - direction), opponentColor))
-			generatedMoves.add(new Move(startSquare, diagonalPosition, Move.EnPassantCapture));
-	}
-
-	private static void addPromotionMoves(List<Move> generatedMoves, int startSquare, int targetSquare) {
-		generatedMoves.add(new Move(startSquare, targetSquare, Move.PromoteToQueen));
-		generatedMoves.add(new Move(startSquare, targetSquare, Move.PromoteToKnight));
-		generatedMoves.add(new Move(startSquare, targetSquare, Move.PromoteToBishop));
-		generatedMoves.add(new Move(startSquare, targetSquare, Move.PromoteToRook));
+		generatedMoves.add(Move.encode(startSquare, targetSquare, Move.PromoteToQueen));
+		generatedMoves.add(Move.encode(startSquare, targetSquare, Move.PromoteToKnight));
+		generatedMoves.add(Move.encode(startSquare, targetSquare, Move.PromoteToBishop));
+		generatedMoves.add(Move.encode(startSquare, targetSquare, Move.PromoteToRook));
 	}
 }
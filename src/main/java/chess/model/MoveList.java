@@ -0,0 +1,119 @@
+package chess.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A reusable list of packed moves (see Move.encode) backed by an int array.
+ * The move generators fill it in place, so no Move objects are created while
+ * generating. Move objects are only needed at the interfaces (GUI, CLI,
+ * network) and can be created with toMoves.
+ */
+public class MoveList implements Serializable {
+
+	// no legal chess position has more than 218 moves
+	private static final int defaultCapacity = 256;
+
+	private int[] moves;
+	private int size;
+
+	/**
+	 * Construct empty MoveList
+	 */
+	public MoveList() {
+		this(defaultCapacity);
+	}
+
+	/**
+	 * Construct empty MoveList
+	 * 
+	 * @param capacity initial number of moves that fit into the list
+	 */
+	public MoveList(int capacity) {
+		moves = new int[capacity];
+	}
+
+	/**
+	 * Appends a packed move
+	 * 
+	 * @param move the packed move
+	 */
+	public void add(int move) {
+		if (size == moves.length)
+			moves = Arrays.copyOf(moves, 2 * moves.length);
+		moves[size++] = move;
+	}
+
+	/**
+	 * @param index position in the list
+	 * @return the packed move at index
+	 */
+	public int get(int index) {
+		return moves[index];
+	}
+
+	/**
+	 * Replaces the packed move at index
+	 * 
+	 * @param index position in the list
+	 * @param move  the new packed move
+	 */
+	public void set(int index, int move) {
+		moves[index] = move;
+	}
+
+	/**
+	 * @return the number of moves in the list
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if the list contains no moves
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all moves but keeps the allocated array
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Removes the move at index by moving the last move into its place
+	 * 
+	 * @param index position in the list
+	 */
+	public void removeAt(int index) {
+		moves[index] = moves[--size];
+	}
+
+	/**
+	 * @param move a packed move
+	 * @return true if move is in the list
+	 */
+	public boolean contains(int move) {
+		for (int i = 0; i < size; i++) {
+			if (moves[i] == move)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return a new list of Move objects for all moves in this list
+	 */
+	public List<Move> toMoves() {
+		List<Move> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			result.add(Move.decode(moves[i]));
+		}
+		return result;
+	}
+}
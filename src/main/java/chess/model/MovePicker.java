@@ -0,0 +1,286 @@
+package chess.model;
+
+/**
+ * Returns the legal moves of a position one at a time, in the order a search
+ * wants to try them. The moves are generated in stages and a stage is only
+ * generated when the moves of the stages before are used up, so a search that
+ * cuts off after the first move does not pay for the rest:
+ * <ol>
+ * <li>the hash move</li>
+ * <li>winning and equal captures (and promotions), most valuable victim
+ * first</li>
+ * <li>the two killer moves</li>
+ * <li>the countermove: the quiet move that refuted the opponent's last move
+ * before</li>
+ * <li>quiet moves, highest history score first</li>
+ * <li>losing captures</li>
+ * </ol>
+ * In captures-only mode (for the quiescence search) only the captures and
+ * promotions are returned.
+ *
+ * An instance can be reused for any number of positions, so a search needs
+ * one per ply, but not by several threads at once.
+ */
+public class MovePicker {
+
+	// stages in the order they are picked
+	private static final int hashMoveStage = 0;
+	private static final int generateCapturesStage = 1;
+	private static final int goodCapturesStage = 2;
+	private static final int killersStage = 3;
+	private static final int counterMoveStage = 4;
+	private static final int generateQuietsStage = 5;
+	private static final int quietsStage = 6;
+	private static final int badCapturesStage = 7;
+	private static final int doneStage = 8;
+
+	private final LegalMoveGenerator generator = new LegalMoveGenerator();
+	private final MoveList captures = new MoveList();
+	private final int[] captureScores = new int[256];
+	private final MoveList badCaptures = new MoveList();
+	private final MoveList quiets = new MoveList();
+	private final int[] quietScores = new int[256];
+	// static exchange of the capture sequence, one entry per capture
+	private final int[] exchangeGains = new int[32];
+
+	private Board board;
+	private int hashMove;
+	private int killer1;
+	private int killer2;
+	private int counterMove;
+	// history scores of quiet moves indexed by Move.historyIndex, null to keep
+	// the generation order
+	private int[] history;
+	private boolean capturesOnly;
+	private int stage = doneStage;
+	private int index;
+
+	/**
+	 * Starts picking all legal moves of a position
+	 *
+	 * @param board    the position, it must not change while moves are picked
+	 * @param hashMove packed move to try first or 0
+	 * @param killer1  quiet move that caused a cutoff in a sibling position or 0
+	 * @param killer2  another killer move or 0
+	 */
+	public void init(Board board, int hashMove, int killer1, int killer2) {
+		init(board, hashMove, killer1, killer2, 0, null);
+	}
+
+	/**
+	 * Starts picking all legal moves of a position with all ordering hints of a
+	 * search
+	 *
+	 * @param board       the position, it must not change while moves are picked
+	 * @param hashMove    packed move to try first or 0
+	 * @param killer1     quiet move that caused a cutoff in a sibling position or
+	 *                    0
+	 * @param killer2     another killer move or 0
+	 * @param counterMove quiet move to try after the killers or 0
+	 * @param history     scores of quiet moves by Move.historyIndex, or null
+	 */
+	public void init(Board board, int hashMove, int killer1, int killer2, int counterMove, int[] history) {
+		this.board = board;
+		this.hashMove = hashMove;
+		this.killer1 = killer1;
+		this.killer2 = killer2;
+		this.counterMove = counterMove;
+		this.history = history;
+		capturesOnly = false;
+		stage = hashMoveStage;
+	}
+
+	/**
+	 * Starts picking the legal captures and promotions of a position
+	 *
+	 * @param board the position, it must not change while moves are picked
+	 */
+	public void initCaptures(Board board) {
+		this.board = board;
+		hashMove = 0;
+		killer1 = 0;
+		killer2 = 0;
+		counterMove = 0;
+		history = null;
+		capturesOnly = true;
+		stage = generateCapturesStage;
+	}
+
+	/**
+	 * @return the next packed move or 0 if all moves have been picked
+	 */
+	public int next() {
+		if (stage == hashMoveStage) {
+			stage = generateCapturesStage;
+			if (hashMove != 0 && generator.isLegal(board, hashMove))
+				return hashMove;
+		}
+		if (stage == generateCapturesStage) {
+			captures.clear();
+			badCaptures.clear();
+			generator.generate(board, captures, LegalMoveGenerator.Captures);
+			for (int i = 0; i < captures.size(); i++)
+				captureScores[i] = mvvLva(captures.get(i));
+			index = 0;
+			stage = goodCapturesStage;
+		}
+		if (stage == goodCapturesStage) {
+			while (index < captures.size()) {
+				int move = pickBest(captures, captureScores, index++);
+				if (move == hashMove)
+					continue;
+				if (staticExchange(move) < 0) {
+					badCaptures.add(move);
+					continue;
+				}
+				return move;
+			}
+			index = 0;
+			stage = capturesOnly ? badCapturesStage : killersStage;
+		}
+		if (stage == killersStage) {
+			while (index < 2) {
+				int killer = index++ == 0 ? killer1 : killer2;
+				if (killer != 0 && killer != hashMove && isQuiet(killer) && generator.isLegal(board, killer))
+					return killer;
+			}
+			stage = counterMoveStage;
+		}
+		if (stage == counterMoveStage) {
+			stage = generateQuietsStage;
+			if (counterMove != 0 && counterMove != hashMove && counterMove != killer1 && counterMove != killer2
+					&& isQuiet(counterMove) && generator.isLegal(board, counterMove))
+				return counterMove;
+		}
+		if (stage == generateQuietsStage) {
+			quiets.clear();
+			generator.generate(board, quiets, LegalMoveGenerator.Quiets);
+			if (history != null) {
+				for (int i = 0; i < quiets.size(); i++)
+					quietScores[i] = history[Move.historyIndex(quiets.get(i))];
+			}
+			index = 0;
+			stage = quietsStage;
+		}
+		if (stage == quietsStage) {
+			while (index < quiets.size()) {
+				int move = history == null ? quiets.get(index++) : pickBest(quiets, quietScores, index++);
+				if (move != hashMove && move != killer1 && move != killer2 && move != counterMove)
+					return move;
+			}
+			index = 0;
+			stage = badCapturesStage;
+		}
+		if (stage == badCapturesStage) {
+			if (index < badCaptures.size())
+				return badCaptures.get(index++);
+			stage = doneStage;
+		}
+		return 0;
+	}
+
+	/**
+	 * @return true if the last picked move is a capture that loses material
+	 *         according to the static exchange evaluation
+	 */
+	public boolean isLosingCapture() {
+		return stage == badCapturesStage;
+	}
+
+	// selection sort step: moves the best remaining move to position i
+	private static int pickBest(MoveList moves, int[] scores, int i) {
+		int best = i;
+		for (int j = i + 1; j < moves.size(); j++) {
+			if (scores[best] < scores[j])
+				best = j;
+		}
+		int move = moves.get(best);
+		int score = scores[best];
+		moves.set(best, moves.get(i));
+		scores[best] = scores[i];
+		moves.set(i, move);
+		scores[i] = score;
+		return move;
+	}
+
+	// most valuable victim first, least valuable attacker among equal victims
+	private int mvvLva(int move) {
+		int flag = Move.flagOf(move);
+		int victim = flag == Move.EnPassantCapture ? Piece.Pawn
+				: board.getPieceAt(Move.targetSquareOf(move)) & Piece.typeMask;
+		int attacker = board.getPieceAt(Move.startSquareOf(move)) & Piece.typeMask;
+		int promotion = isPromotion(flag) ? Piece.getValue(flag) : 0;
+		return 8 * (Piece.getValue(victim) + promotion) - Piece.getValue(attacker);
+	}
+
+	// a killer of a sibling may be a capture or impossible in this position
+	private boolean isQuiet(int move) {
+		int flag = Move.flagOf(move);
+		return board.getPieceAt(Move.targetSquareOf(move)) == Piece.None && flag != Move.EnPassantCapture
+				&& !isPromotion(flag);
+	}
+
+	private static boolean isPromotion(int flag) {
+		return Move.PromoteToKnight <= flag && flag <= Move.PromoteToQueen;
+	}
+
+	/**
+	 * Static exchange evaluation: the material gained by the side to move if both
+	 * sides keep capturing on the target square of move with their least
+	 * valuable piece, each side stopping when that is better for it. Pins are
+	 * ignored.
+	 *
+	 * @param move a capture or promotion of the side to move
+	 * @return material gain in Piece.getValue units, negative if move loses
+	 *         material
+	 */
+	int staticExchange(int move) {
+		int start = Move.startSquareOf(move);
+		int target = Move.targetSquareOf(move);
+		int flag = Move.flagOf(move);
+		int color = board.getTurnColor();
+		long occupancy = board.getOccupancy() & ~(1L << start);
+
+		int victim = board.getPieceAt(target) & Piece.typeMask;
+		if (flag == Move.EnPassantCapture) {
+			victim = Piece.Pawn;
+			int captureSquare = color == Piece.White ? target - MoveGenerator.UP : target - MoveGenerator.DOWN;
+			occupancy &= ~(1L << captureSquare);
+		}
+		// value of the piece standing on target after each capture
+		int pieceOnTarget = Piece.getValue(board.getPieceAt(start) & Piece.typeMask);
+		exchangeGains[0] = Piece.getValue(victim);
+		if (isPromotion(flag)) {
+			pieceOnTarget = Piece.getValue(flag);
+			exchangeGains[0] += pieceOnTarget - Piece.getValue(Piece.Pawn);
+		}
+
+		int side = color == Piece.White ? Piece.Black : Piece.White;
+		int depth = 0;
+		long attackers = board.attackersOf(target, occupancy) & occupancy;
+		while (true) {
+			long sideAttackers = attackers & board.getColorBitboard(side);
+			if (sideAttackers == 0)
+				break;
+			int type = Piece.Pawn;
+			while ((sideAttackers & board.getTypeBitboard(type)) == 0)
+				type = type == Piece.Queen ? Piece.King : type + 1;
+			long from = Long.lowestOneBit(sideAttackers & board.getTypeBitboard(type));
+			// the king can only capture if the square is not defended anymore
+			if (type == Piece.King && (attackers & ~from & ~board.getColorBitboard(side)) != 0)
+				break;
+			depth++;
+			exchangeGains[depth] = pieceOnTarget - exchangeGains[depth - 1];
+			pieceOnTarget = Piece.getValue(type);
+			occupancy &= ~from;
+			// sliders behind the capturing piece join in
+			attackers = board.attackersOf(target, occupancy) & occupancy;
+			side = side == Piece.White ? Piece.Black : Piece.White;
+		}
+		while (0 < depth) {
+			exchangeGains[depth - 1] = -Math.max(-exchangeGains[depth - 1], exchangeGains[depth]);
+			depth--;
+		}
+		return exchangeGains[0];
+	}
+}
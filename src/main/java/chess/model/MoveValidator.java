@@ -8,15 +8,6 @@ import java.util.List;
  */
 public class MoveValidator {
 
-	private static int findKing(Board board, int color) {
-		List<Integer> positions = board.getPiecePositionsFor(color);
-		for (int squarePosition : positions) {
-			if (Piece.isType(board.getPieceAt(squarePosition), Piece.King))
-				return squarePosition;
-		}
-		return -1;
-	}
-
 	/**
 	 * Filters a list of moves
 	 * 
@@ -25,10 +16,18 @@ public class MoveValidator {
 	 * @return a list of valid moves
 	 */
 	public static List<Move> filter(Board board, List<Move> moves) {
-		moves.removeIf(m -> !validateMove(board, m));
+		MoveList legalMoves = legalMoves(board);
+		moves.removeIf(m -> !legalMoves.contains(m.encode()));
 		return moves;
 	}
 
+	// all legal moves of the side to move
+	private static MoveList legalMoves(Board board) {
+		MoveList legalMoves = new MoveList();
+		new LegalMoveGenerator().generate(board, legalMoves);
+		return legalMoves;
+	}
+
 	/**
 	 * Checks for check
 	 * 
@@ -37,23 +36,12 @@ public class MoveValidator {
 	 * @return 0: no check, 1: check, 2: double check
 	 */
 	public static int checkCheck(Board board, int teamColor) {
-		int numChecks = 0;
-		MoveGenerator generator = new MoveGenerator(board);
-		int kingPosition = findKing(board, teamColor);
-
-		// swap color to opponent
-		if (generator.getTeamColor() == teamColor)
-			generator.swapColors();
-
-		// find opponent moves and count if king is in check
-		for (Move move : generator.generateMoves()) {
-			if (move.getTargetSquare() == kingPosition) {
-				numChecks += 1;
-				if (numChecks == 2)
-					return numChecks;
-			}
-		}
-		return numChecks;
+		int kingPosition = board.getKingSquare(teamColor);
+		if (kingPosition < 0)
+			return 0;
+		int opponentColor = teamColor == Piece.White ? Piece.Black : Piece.White;
+		long checkers = board.attackersOf(kingPosition) & board.getColorBitboard(opponentColor);
+		return Math.min(2, Long.bitCount(checkers));
 	}
 
 	/**
@@ -67,50 +55,14 @@ public class MoveValidator {
 	public static List<Move> getPossibleCheckMoves(Board board, int currentColor, Move move) {
 
 		List<Move> checkMoves = new ArrayList<>();
-		MoveGenerator generator = new MoveGenerator(board.makeMove(move));
-		int kingPosition = findKing(board, currentColor == Piece.White ? Piece.Black : Piece.White);
-
-		// swap color to opponent
-		if (generator.getTeamColor() != currentColor)
-			generator.swapColors();
-
-		for (Move possibleMove : generator.generateMovesStartingAt(move.getTargetSquare())) {
-			if (possibleMove.getTargetSquare() == kingPosition) {
-				checkMoves.add(move);
-			}
-		}
+		Board boardAfterMove = board.makeMove(move);
+		int kingPosition = board.getKingSquare(currentColor == Piece.White ? Piece.Black : Piece.White);
+		if (0 <= kingPosition && (boardAfterMove.attackersOf(kingPosition) & 1L << move.getTargetSquare()) != 0)
+			checkMoves.add(move);
 
 		return checkMoves;
 	}
 
-	// Check if move is any legal move found by the MoveGenerator
-	private static boolean isLegalMove(MoveGenerator generator, Move move) {
-		return generator.generateMovesStartingAt(move.getStartSquare()).contains(move);
-	}
-
-	// if king is in check or any square between the king and the pawn is under
-	// attack he cannot castle
-	private static boolean canCastle(MoveGenerator generator, Move move, int inCheck) {
-		if (0 < inCheck)
-			return false;
-		generator.swapColors();
-		List<Move> opponentMoves = generator.generateMoves();
-		// check left side
-		if (move.getTargetSquare() < move.getStartSquare()) {
-			for (int i = 1; i < 4; i++) {
-				if (isTarget(move.getStartSquare() - i, opponentMoves))
-					return false;
-			}
-		} else {
-			// check right side
-			for (int i = 1; i < 3; i++) {
-				if (isTarget(move.getStartSquare() + i, opponentMoves))
-					return false;
-			}
-		}
-		return true;
-	}
-
 	/**
 	 * Checks if a move is legal
 	 * 
@@ -119,31 +71,6 @@ public class MoveValidator {
 	 * @return true if the move is legal
 	 */
 	public static boolean validateMove(Board board, Move move) {
-		MoveGenerator generator = new MoveGenerator(board);
-		if (!isLegalMove(generator, move))
-			return false;
-
-		Board boardAfterMove = board.makeMove(move);
-
-		int inCheck = checkCheck(board, board.getTurnColor());
-		// check if king is inCheck and tries to castle
-		if (0 < inCheck && move.getFlag() == Move.Castling) {
-			return false;
-		}
-
-		// check if move puts own king in chess
-		if (0 < checkCheck(boardAfterMove, board.getTurnColor()))
-			return false;
-
-		return move.getFlag() != Move.Castling || canCastle(generator, move, inCheck);
-	}
-
-	// Checks if squarePosition is a targetSquare of any move in moves
-	private static boolean isTarget(int squarePosition, List<Move> moves) {
-		for (Move m : moves) {
-			if (m.getTargetSquare() == squarePosition)
-				return true;
-		}
-		return false;
+		return new LegalMoveGenerator().isLegal(board, move.encode());
 	}
 }
@@ -0,0 +1,136 @@
+package chess.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft on all cores. The first plies of the tree are split into ForkJoin
+ * tasks, one per move, the subtrees below are counted sequentially. All
+ * threads share one table of node counts, so a position reached by several
+ * move orders is only counted once. Without a table every node is visited, so
+ * the nodes per second measure the move generation.
+ */
+public class ParallelPerft {
+
+	// number of plies split into tasks
+	private static final int splitPlies = 2;
+	// subtrees with fewer plies are not worth a task
+	private static final int minTaskDepth = 3;
+
+	private final ForkJoinPool pool;
+	// null if transpositions are counted again
+	private final PerftTable table;
+
+	/**
+	 * Parallel perft on the common ForkJoin pool with a 64 MB table
+	 */
+	public ParallelPerft() {
+		this(ForkJoinPool.commonPool(), 64);
+	}
+
+	/**
+	 * @param pool            the threads to count with
+	 * @param sizeInMegabytes memory of the shared table of node counts
+	 */
+	public ParallelPerft(ForkJoinPool pool, int sizeInMegabytes) {
+		this(pool, new PerftTable(sizeInMegabytes));
+	}
+
+	/**
+	 * Parallel perft without table, every node is visited
+	 *
+	 * @param pool the threads to count with
+	 */
+	public ParallelPerft(ForkJoinPool pool) {
+		this(pool, null);
+	}
+
+	private ParallelPerft(ForkJoinPool pool, PerftTable table) {
+		this.pool = pool;
+		this.table = table;
+	}
+
+	/**
+	 * Counts all move sequences of length depth starting in board
+	 *
+	 * @param board the start position, it is not changed
+	 * @param depth number of plies, at least 1
+	 * @return number of leaf nodes
+	 */
+	public long perft(Board board, int depth) {
+		checkDepth(depth);
+		return pool.invoke(new PerftTask(new Board(board), depth, 0));
+	}
+
+	/**
+	 * Counts the leaf nodes below every legal move of board
+	 *
+	 * @param board the start position, it is not changed
+	 * @param depth number of plies including the root move, at least 1
+	 * @return the node count for every root move in generation order
+	 */
+	public Map<Move, Long> divide(Board board, int depth) {
+		checkDepth(depth);
+		MoveList moves = new MoveList();
+		new LegalMoveGenerator().generate(board, moves);
+		// all root moves are counted at the same time
+		List<PerftTask> tasks = new ArrayList<>(moves.size());
+		for (int i = 0; 1 < depth && i < moves.size(); i++) {
+			PerftTask task = new PerftTask(afterMove(board, moves.get(i)), depth - 1, 1);
+			pool.execute(task);
+			tasks.add(task);
+		}
+
+		Map<Move, Long> counts = new LinkedHashMap<>();
+		for (int i = 0; i < moves.size(); i++)
+			counts.put(Move.decode(moves.get(i)), 1 < depth ? tasks.get(i).join() : 1L);
+		return counts;
+	}
+
+	private static void checkDepth(int depth) {
+		if (depth < 1)
+			throw new IllegalArgumentException("Perft depth must be at least 1");
+	}
+
+	private static Board afterMove(Board board, int move) {
+		Board position = new Board(board);
+		position.doMove(move);
+		return position;
+	}
+
+	/**
+	 * Counts the subtree of one position, split into subtasks near the root
+	 */
+	private class PerftTask extends RecursiveTask<Long> {
+
+		private final Board board;
+		private final int depth;
+		private final int ply;
+
+		PerftTask(Board board, int depth, int ply) {
+			this.board = board;
+			this.depth = depth;
+			this.ply = ply;
+		}
+
+		@Override
+		protected Long compute() {
+			if (splitPlies <= ply || depth < minTaskDepth)
+				return new Perft(table).count(board, depth);
+
+			MoveList moves = new MoveList();
+			new LegalMoveGenerator().generate(board, moves);
+			List<PerftTask> subtasks = new ArrayList<>(moves.size());
+			for (int i = 0; i < moves.size(); i++)
+				subtasks.add(new PerftTask(afterMove(board, moves.get(i)), depth - 1, ply + 1));
+			long nodes = 0;
+			for (PerftTask subtask : invokeAll(subtasks))
+				nodes += subtask.join();
+			return nodes;
+		}
+	}
+}
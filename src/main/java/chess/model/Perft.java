@@ -0,0 +1,121 @@
+package chess.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth (perft). The
+ * counts of well known positions are published, so perft checks the move
+ * generation and measures its speed at the same time.
+ */
+public class Perft {
+
+	private final LegalMoveGenerator generator = new LegalMoveGenerator();
+	// one move list per ply, reused for all positions of that ply
+	private MoveList[] moveLists = new MoveList[0];
+	// counts of positions already seen, null if transpositions are counted again
+	private final PerftTable table;
+
+	/**
+	 * Perft without hash table, every node is visited
+	 */
+	public Perft() {
+		this(null);
+	}
+
+	/**
+	 * @param table table of known node counts, may be shared with other threads
+	 */
+	Perft(PerftTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Counts all move sequences of length depth starting in board
+	 *
+	 * @param board the start position, it is not changed
+	 * @param depth number of plies, at least 1
+	 * @return number of leaf nodes
+	 */
+	public long perft(Board board, int depth) {
+		return count(new Board(board), depth);
+	}
+
+	/**
+	 * Counts the leaf nodes below every legal move of board
+	 *
+	 * @param board the start position, it is not changed
+	 * @param depth number of plies including the root move, at least 1
+	 * @return the node count for every root move in generation order
+	 */
+	public Map<Move, Long> divide(Board board, int depth) {
+		ensureMoveLists(depth);
+		Board position = new Board(board);
+		MoveList moves = new MoveList();
+		generator.generate(position, moves);
+
+		Map<Move, Long> counts = new LinkedHashMap<>();
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			long nodes = 1;
+			if (1 < depth) {
+				position.doMove(move);
+				nodes = lookup(position, depth - 1);
+				position.undoMove();
+			}
+			counts.put(Move.decode(move), nodes);
+		}
+		return counts;
+	}
+
+	/**
+	 * Counts the leaf nodes below board, board is restored afterwards
+	 *
+	 * @param board the position
+	 * @param depth number of plies, at least 1
+	 * @return number of leaf nodes
+	 */
+	long count(Board board, int depth) {
+		ensureMoveLists(depth);
+		return lookup(board, depth);
+	}
+
+	// take the count from the table if possible
+	private long lookup(Board board, int depth) {
+		if (table == null || depth == 1)
+			return countMoves(board, depth);
+		long nodes = table.get(board.getZobristKey(), depth);
+		if (nodes < 0) {
+			nodes = countMoves(board, depth);
+			table.put(board.getZobristKey(), depth, nodes);
+		}
+		return nodes;
+	}
+
+	private long countMoves(Board board, int depth) {
+		// the moves of the last ply are not made, only counted
+		if (depth == 1)
+			return generator.countLegalMoves(board);
+
+		MoveList moves = moveLists[depth];
+		moves.clear();
+		generator.generate(board, moves);
+		long nodes = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			board.doMove(moves.get(i));
+			nodes += lookup(board, depth - 1);
+			board.undoMove();
+		}
+		return nodes;
+	}
+
+	private void ensureMoveLists(int depth) {
+		if (depth < 1)
+			throw new IllegalArgumentException("Perft depth must be at least 1");
+		if (depth < moveLists.length)
+			return;
+		moveLists = new MoveList[depth + 1];
+		for (int i = 0; i <= depth; i++)
+			moveLists[i] = new MoveList();
+	}
+}
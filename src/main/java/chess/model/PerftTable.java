@@ -0,0 +1,58 @@
+package chess.model;
+
+/**
+ * Fixed size hash table of perft node counts, shared by several threads
+ * without locks. Every slot holds two longs: the data (node count and depth)
+ * and the Zobrist key XOR the data. A slot that was written by two threads at
+ * once does not pass the XOR check and is treated as empty, so a lookup never
+ * returns a count of another position.
+ */
+class PerftTable {
+
+	private final long[] entries;
+	private final int mask;
+
+	/**
+	 * @param sizeInMegabytes memory of the table, rounded down to a power of two
+	 *                        number of slots
+	 */
+	PerftTable(int sizeInMegabytes) {
+		long slots = Long.highestOneBit(Math.max(1, (long) sizeInMegabytes * 1024 * 1024 / 16));
+		slots = Math.min(slots, 1 << 29);
+		entries = new long[(int) (2 * slots)];
+		mask = (int) slots - 1;
+	}
+
+	/**
+	 * @param key   Zobrist key of the position
+	 * @param depth remaining depth
+	 * @return the stored node count or -1 if there is none
+	 */
+	long get(long key, int depth) {
+		int slot = index(key, depth);
+		long data = entries[slot + 1];
+		if ((entries[slot] ^ data) != key || (data & 0x3F) != depth)
+			return -1;
+		return data >>> 6;
+	}
+
+	/**
+	 * Stores a node count, replacing whatever was in the slot before
+	 *
+	 * @param key   Zobrist key of the position
+	 * @param depth remaining depth (less than 64)
+	 * @param nodes the node count
+	 */
+	void put(long key, int depth, long nodes) {
+		int slot = index(key, depth);
+		long data = nodes << 6 | depth;
+		entries[slot] = key ^ data;
+		entries[slot + 1] = data;
+	}
+
+	// different depths of the same position go to different slots
+	private int index(long key, int depth) {
+		long hash = key ^ depth * 0x9E3779B97F4A7C15L;
+		return 2 * (int) ((hash ^ hash >>> 32) & mask);
+	}
+}
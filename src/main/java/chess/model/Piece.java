@@ -20,6 +20,10 @@ public class Piece {
 	public static final int whiteMask = 0b01000;
 	public static final int colorMask = whiteMask | blackMask;
 
+	// material value of every type: a pawn is worth one point, a knight or bishop
+	// three, a rook five and a queen nine (in thousandths)
+	private static final int[] values = { 0, 0, 1000, 3000, 3000, 5000, 9000 };
+
 	public static final String UTFSymbols = " ♔♙♘♗♖♕♚♟♞♝♜♛";
 
 	public static final String UTFSymbolNone = " ";
@@ -41,23 +45,23 @@ public class Piece {
 	 * @param color Integer representation of the color
 	 * @return Returns true if piece is color
 	 */
-	public static Boolean isColor(int piece, int color) {
+	public static boolean isColor(int piece, int color) {
 		return (piece & colorMask) == color;
 	}
 
 	/**
 	 * @param piece Integer representation of the piece
-	 * @return the Integer value of color of the piece
+	 * @return the color of the piece (Piece.White, Piece.Black or Piece.None)
 	 */
-	public static Integer getColor(int piece) {
+	public static int getColor(int piece) {
 		return piece & colorMask;
 	}
 
 	/**
 	 * @param piece Integer representation of the piece
-	 * @return the Integer value of the type of the piece
+	 * @return the type of the piece (Piece.None ... Piece.Queen)
 	 */
-	public static Integer getType(int piece) {
+	public static int getType(int piece) {
 		return piece & typeMask;
 	}
 
@@ -67,7 +71,15 @@ public class Piece {
 	 * @return true if piece is of type type
 	 */
 	public static boolean isType(int piece, int type) {
-		return getType(piece) == type;
+		return (piece & typeMask) == type;
+	}
+
+	/**
+	 * @param type Integer value of the type of the piece
+	 * @return material value of the type, 0 for the king and Piece.None
+	 */
+	public static int getValue(int type) {
+		return values[type];
 	}
 
 	/**
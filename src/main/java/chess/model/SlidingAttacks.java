@@ -0,0 +1,210 @@
+package chess.model;
+
+/**
+ * Attack lookup for the sliding pieces (rook, bishop and queen) based on magic
+ * bitboards. Squares are indexed as in Board.squares ("a8" is 0, "h1" is 63).
+ *
+ * For every square the relevant occupancy (the rays without the last square
+ * towards the border) is multiplied by a magic number. The upper bits of the
+ * product are a collision free index into a precomputed table of attack sets,
+ * so a lookup is one mask, one multiplication, one shift and one array access.
+ * The magic numbers were found by a random search over sparse 64 bit values;
+ * only the attack tables are built at class load.
+ */
+public class SlidingAttacks {
+
+	// {file delta, rank delta}
+	private static final int[][] rookDeltas = { { 0, -1 }, { 1, 0 }, { 0, 1 }, { -1, 0 } };
+	private static final int[][] bishopDeltas = { { -1, -1 }, { 1, -1 }, { -1, 1 }, { 1, 1 } };
+
+	private static final long[] rookMasks = new long[64];
+	private static final long[] bishopMasks = new long[64];
+	private static final int[] rookShifts = new int[64];
+	private static final int[] bishopShifts = new int[64];
+	private static final long[][] rookTable = new long[64][];
+	private static final long[][] bishopTable = new long[64][];
+	// squares strictly between two squares on a common rank, file or diagonal
+	private static final long[][] betweenTable = new long[64][64];
+	// the whole line through two squares on a common rank, file or diagonal
+	private static final long[][] lineTable = new long[64][64];
+
+	private static final long[] rookMagics = {
+			0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+			0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+			0x0000800080204001L, 0x1000804000802001L, 0x8240801000200080L, 0x8611001004200900L,
+			0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+			0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+			0x0001818014000800L, 0xA002010100080400L, 0x0008040088020130L, 0x0001020004048845L,
+			0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+			0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+			0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+			0x4540040080800800L, 0x0000800400800200L, 0x9281800100808200L, 0x8004048102000854L,
+			0x4420802040008006L, 0x0880500020004002L, 0x0801200241050010L, 0x8400080010008080L,
+			0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+			0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+			0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+			0x8044110480002441L, 0x1023012082044112L, 0x00804080200A0012L, 0x000420310A004A42L,
+			0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L };
+
+	private static final long[] bishopMagics = {
+			0x1010220204082A00L, 0x80E0020202002804L, 0x2008480104200020L, 0x000220920280002DL,
+			0x32040421000B0284L, 0x1002080404000400L, 0x0004160892080040L, 0x2203024206204201L,
+			0x0002404264010200L, 0x1120908408428124L, 0xB100424403002280L, 0x240008060440C288L,
+			0x2040040420490400L, 0x0100620210040022L, 0x0400084104202028L, 0x0010050080908820L,
+			0x0C90A04490824802L, 0x000200A008210130L, 0x0C08001000204010L, 0x0008000186014480L,
+			0x0601044820080021L, 0x0002000101013100L, 0x1400A08108080204L, 0x0250401104485410L,
+			0x4820240810142843L, 0x0009142A20182200L, 0x0848140048440020L, 0x2020120000400440L,
+			0x0108840200802003L, 0x0009070082009492L, 0x020C0C0038424245L, 0xCA44005808210410L,
+			0x8011212000500404L, 0x2028840510101008L, 0x0004042A00041400L, 0x0624020080980080L,
+			0x1820410040840040L, 0x2201004202050100L, 0x402A088A24040224L, 0x0242061040002400L,
+			0x90020202400821A0L, 0x00C9009004E01002L, 0x58C2060202023100L, 0x0000012214040800L,
+			0x0210846810100200L, 0x0004208081010200L, 0x01A4108404442100L, 0x8054082C80280106L,
+			0x0004144904104208L, 0x00324C0A11104000L, 0x1000020231040100L, 0x2080001042020004L,
+			0x0544021020288104L, 0x1103501408083020L, 0x4010451004960002L, 0x003010091C44902CL,
+			0x0102402884202000L, 0x0480804C00841086L, 0x04602C8602210400L, 0x0000004000420200L,
+			0x0040000020442C18L, 0x4483804089094100L, 0x80000B0248020400L, 0x0045010808008680L };
+
+	static {
+		for (int square = 0; square < 64; square++) {
+			rookMasks[square] = relevantOccupancy(square, rookDeltas);
+			bishopMasks[square] = relevantOccupancy(square, bishopDeltas);
+			initSquare(square, rookDeltas, rookMasks, rookMagics, rookShifts, rookTable);
+			initSquare(square, bishopDeltas, bishopMasks, bishopMagics, bishopShifts, bishopTable);
+		}
+		for (int from = 0; from < 64; from++) {
+			for (int to = 0; to < 64; to++) {
+				initLine(from, to);
+			}
+		}
+	}
+
+	/**
+	 * @param square    position of the rook
+	 * @param occupancy bitboard of all pieces on the board
+	 * @return bitboard of all squares attacked by a rook on square, including the
+	 *         first blocking piece of each ray
+	 */
+	public static long rookAttacks(int square, long occupancy) {
+		return rookTable[square][(int) (((occupancy & rookMasks[square]) * rookMagics[square]) >>> rookShifts[square])];
+	}
+
+	/**
+	 * @param square    position of the bishop
+	 * @param occupancy bitboard of all pieces on the board
+	 * @return bitboard of all squares attacked by a bishop on square, including
+	 *         the first blocking piece of each ray
+	 */
+	public static long bishopAttacks(int square, long occupancy) {
+		return bishopTable[square][(int) (((occupancy & bishopMasks[square]) * bishopMagics[square])
+				>>> bishopShifts[square])];
+	}
+
+	/**
+	 * @param square    position of the queen
+	 * @param occupancy bitboard of all pieces on the board
+	 * @return bitboard of all squares attacked by a queen on square
+	 */
+	public static long queenAttacks(int square, long occupancy) {
+		return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+	}
+
+	/**
+	 * @param from a square
+	 * @param to   another square
+	 * @return the squares strictly between from and to if both are on a common
+	 *         rank, file or diagonal, else 0
+	 */
+	public static long between(int from, int to) {
+		return betweenTable[from][to];
+	}
+
+	/**
+	 * @param from a square
+	 * @param to   another square
+	 * @return all squares of the rank, file or diagonal through from and to (from
+	 *         border to border), 0 if they do not share one
+	 */
+	public static long line(int from, int to) {
+		return lineTable[from][to];
+	}
+
+	private static void initLine(int from, int to) {
+		long toBit = 1L << to;
+		long fromBit = 1L << from;
+		if (from == to)
+			return;
+		if ((rookAttacks(from, 0) & toBit) != 0) {
+			betweenTable[from][to] = rookAttacks(from, toBit) & rookAttacks(to, fromBit);
+			lineTable[from][to] = (rookAttacks(from, 0) & rookAttacks(to, 0)) | fromBit | toBit;
+		} else if ((bishopAttacks(from, 0) & toBit) != 0) {
+			betweenTable[from][to] = bishopAttacks(from, toBit) & bishopAttacks(to, fromBit);
+			lineTable[from][to] = (bishopAttacks(from, 0) & bishopAttacks(to, 0)) | fromBit | toBit;
+		}
+	}
+
+	// Fill the attack table of square for every subset of the relevant occupancy
+	private static void initSquare(int square, int[][] deltas, long[] masks, long[] magics, int[] shifts,
+			long[][] tables) {
+		long mask = masks[square];
+		int bits = Long.bitCount(mask);
+		int shift = 64 - bits;
+		long[] table = new long[1 << bits];
+		boolean[] used = new boolean[1 << bits];
+
+		// enumerate all subsets of mask (carry-rippler)
+		long subset = 0;
+		do {
+			long attacks = slidingAttacks(square, subset, deltas);
+			int index = (int) ((subset * magics[square]) >>> shift);
+			if (used[index] && table[index] != attacks)
+				throw new IllegalStateException("Invalid magic number for square " + square);
+			used[index] = true;
+			table[index] = attacks;
+			subset = (subset - mask) & mask;
+		} while (subset != 0);
+
+		shifts[square] = shift;
+		tables[square] = table;
+	}
+
+	/**
+	 * Walks each ray from square until the border or the first occupied square is
+	 * reached. Only used to build the lookup tables.
+	 *
+	 * @param square    the start square
+	 * @param occupancy bitboard of blocking pieces
+	 * @param deltas    the ray directions as {file delta, rank delta}
+	 * @return bitboard of attacked squares
+	 */
+	static long slidingAttacks(int square, long occupancy, int[][] deltas) {
+		long attacks = 0;
+		for (int[] delta : deltas) {
+			int file = square % 8 + delta[0];
+			int rank = square / 8 + delta[1];
+			while (0 <= file && file < 8 && 0 <= rank && rank < 8) {
+				long bit = 1L << Coordinate.toIndex(file, rank);
+				attacks |= bit;
+				if ((occupancy & bit) != 0)
+					break;
+				file += delta[0];
+				rank += delta[1];
+			}
+		}
+		return attacks;
+	}
+
+	// Rays from square without the border squares, those never block anything
+	private static long relevantOccupancy(int square, int[][] deltas) {
+		long mask = 0;
+		for (int[] delta : deltas) {
+			int file = square % 8 + delta[0];
+			int rank = square / 8 + delta[1];
+			while (0 <= file + delta[0] && file + delta[0] < 8 && 0 <= rank + delta[1] && rank + delta[1] < 8) {
+				mask |= 1L << Coordinate.toIndex(file, rank);
+				file += delta[0];
+				rank += delta[1];
+			}
+		}
+		return mask;
+	}
+}
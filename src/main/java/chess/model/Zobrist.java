@@ -0,0 +1,70 @@
+package chess.model;
+
+import java.util.Random;
+
+/**
+ * Random keys for Zobrist hashing. The key of a position is the XOR of the keys
+ * of all pieces on their squares, the side to move (only if black), the
+ * castling rights and the file of the en passant square. A move changes only a
+ * few of these parts, so Board updates its key by XORing them in and out.
+ *
+ * The keys are generated from a fixed seed, so a position has the same key in
+ * every run.
+ */
+class Zobrist {
+
+	// pieceKeys[piece][square], piece including the color bit
+	private static final long[][] pieceKeys = new long[Piece.Black + Piece.Queen + 1][64];
+	// one key for every combination of the four castling rights
+	private static final long[] castlingKeys = new long[16];
+	private static final long[] enPassantKeys = new long[8];
+	private static final long blackToMoveKey;
+
+	static {
+		Random random = new Random(0x5EED_C4E5_5L);
+		for (int color : new int[] { Piece.White, Piece.Black }) {
+			for (int type = Piece.King; type <= Piece.Queen; type++) {
+				for (int square = 0; square < 64; square++)
+					pieceKeys[color + type][square] = random.nextLong();
+			}
+		}
+		for (int i = 1; i < castlingKeys.length; i++)
+			castlingKeys[i] = random.nextLong();
+		for (int i = 0; i < enPassantKeys.length; i++)
+			enPassantKeys[i] = random.nextLong();
+		blackToMoveKey = random.nextLong();
+	}
+
+	/**
+	 * @param piece  a piece or Piece.None
+	 * @param square its position
+	 * @return key of piece on square, 0 for Piece.None
+	 */
+	static long piece(int piece, int square) {
+		return pieceKeys[piece][square];
+	}
+
+	/**
+	 * @param castlingRights the castling bits of a Board
+	 * @return key of the castling rights, 0 if no castling is possible
+	 */
+	static long castling(int castlingRights) {
+		return castlingKeys[castlingRights];
+	}
+
+	/**
+	 * @param enPassantSquare en passant square or -1
+	 * @return key of the en passant file, 0 if there is no en passant square
+	 */
+	static long enPassant(int enPassantSquare) {
+		return enPassantSquare < 0 ? 0 : enPassantKeys[enPassantSquare % 8];
+	}
+
+	/**
+	 * @param turnColor the side to move
+	 * @return key of the side to move, 0 for white
+	 */
+	static long side(int turnColor) {
+		return turnColor == Piece.Black ? blackToMoveKey : 0;
+	}
+}
@@ -19,6 +19,8 @@ public class CliTests {
 		assertTrue(Cli.testUserInputSyntax("c2-c4r"));
 		assertTrue(Cli.testUserInputSyntax("beaten"));
 		assertTrue(Cli.testUserInputSyntax("quit"));
+		assertTrue(Cli.testUserInputSyntax("perft 4"));
+		assertFalse(Cli.testUserInputSyntax("perft 0"));
 		assertFalse(Cli.testUserInputSyntax("exit"));
 	}
 }
@@ -1,10 +1,15 @@
 package chess.engine;
 
+import chess.model.Board;
+import chess.model.Coordinate;
 import chess.model.Move;
 import chess.model.Piece;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Tests for the engine
@@ -55,4 +60,73 @@ public class EngineTest {
 
         assertEquals(expected, best);
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Test that the engine finds a mate in one and answers a threatened mate
+     */
+    @Test
+    public void generateBestMoveMate() {
+        Engine e = new Engine();
+        assertEquals(new Move(Coordinate.toIndex("a1"), Coordinate.toIndex("a8")),
+                e.generateBestMove(new Board("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1")));
+        // black must stop Ra8 mate
+        Move defence = e.generateBestMove(new Board("6k1/5ppp/8/8/8/8/r4PPP/R5K1 b - - 0 1"));
+        assertEquals(new Move(Coordinate.toIndex("a2"), Coordinate.toIndex("a1")), defence);
+        assertNull(e.generateBestMove(new Board("R5k1/5ppp/8/8/8/8/5PPP/6K1 b - - 0 1")));
+    }
+
+
+    /**
+     * Test that the quiescence search sees the recapture of a defended pawn at
+     * depth one
+     */
+    @Test
+    public void generateBestMoveQuiescence() {
+        Engine e = new Engine();
+        Board board = new Board("4k3/8/4p3/3p4/8/8/8/3QK3 w - - 0 1");
+        Move best = e.generateBestMove(board, SearchLimits.depth(1));
+        assertNotNull(best);
+        assertTrue(!best.equals(new Move(Coordinate.toIndex("d1"), Coordinate.toIndex("d5"))));
+        // an undefended pawn is still taken
+        board = new Board("4k3/8/8/3p4/8/8/8/3QK3 w - - 0 1");
+        assertEquals(new Move(Coordinate.toIndex("d1"), Coordinate.toIndex("d5")),
+                e.generateBestMove(board, SearchLimits.depth(1)));
+    }
+
+
+    /**
+     * Test that the search stops at the node and time limits and still returns a
+     * move
+     */
+    @Test
+    public void generateBestMoveWithLimits() {
+        Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        Engine e = new Engine();
+        assertNotNull(e.generateBestMove(board, SearchLimits.nodes(5000)));
+        assertTrue(e.getNodes() <= 5000 + 1024);
+
+        long start = System.currentTimeMillis();
+        assertNotNull(e.generateBestMove(board, SearchLimits.moveTime(200)));
+        assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+
+    /**
+     * Test that a stop before the search starts still ends it, until clearStop
+     * is called
+     */
+    @Test
+    public void stopBeforeSearch() {
+        Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        Engine e = new Engine();
+        e.stop();
+        long start = System.currentTimeMillis();
+        assertNotNull(e.generateBestMove(board, SearchLimits.infinite()));
+        assertTrue(System.currentTimeMillis() - start < 1000);
+
+        e.clearStop();
+        e.generateBestMove(board, SearchLimits.depth(3));
+        assertTrue(1000 < e.getNodes());
+    }
+}
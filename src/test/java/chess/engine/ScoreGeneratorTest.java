@@ -1,5 +1,6 @@
 package chess.engine;
 
+import chess.model.Board;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -16,15 +17,10 @@ class ScoreGeneratorTest {
 	 */
 	@Test
 	public void scoreGenerator() {
-		ScoreGenerator sg = new ScoreGenerator(new EngineBoard(startposition));
-
 		// expect score to be zero in symmetric starting position:
-		System.out.println(sg.getScore());
-		assertEquals(0, sg.getScore());
+		assertEquals(0, ScoreGenerator.evaluate(new Board(startposition)));
 
 		// test on some starting position breaking the symmetry
-		sg = new ScoreGenerator(new EngineBoard("rnbqk2r/ppp1bppp/3p1n2/4p3/8/5NP1/PPPPPPBP/RNBQ1RK1"));
-		System.out.println(sg.getScore());
-		assertEquals(154, sg.getScore());
+		assertEquals(154, ScoreGenerator.evaluate(new Board("rnbqk2r/ppp1bppp/3p1n2/4p3/8/5NP1/PPPPPPBP/RNBQ1RK1")));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package chess.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the transposition table
+ */
+public class TranspositionTableTest {
+
+    /**
+     * Test that stored entries are found with all fields
+     */
+    @Test
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x1234_5678_9ABC_DEF0L;
+        table.store(key, 0x7FFF, -Engine.mateScore + 7, 12, TranspositionTable.upperBound);
+        long data = table.probe(key);
+        assertEquals(0x7FFF, TranspositionTable.moveOf(data));
+        assertEquals(-Engine.mateScore + 7, TranspositionTable.scoreOf(data));
+        assertEquals(12, TranspositionTable.depthOf(data));
+        assertEquals(TranspositionTable.upperBound, TranspositionTable.boundOf(data));
+        assertEquals(0, table.probe(key + 1));
+
+        table.clear();
+        assertEquals(0, table.probe(key));
+    }
+
+    /**
+     * Test that the deeper entry of a bucket is kept and the second entry is
+     * always replaced
+     */
+    @Test
+    public void replacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        // the same bucket: the index uses the low bits of key ^ key >>> 32
+        long deep = 5;
+        long shallow = 5 | 1L << 40 | 1L << 8;
+        long other = 5 | 1L << 41 | 1L << 9;
+        table.store(deep, 1, 100, 8, TranspositionTable.exact);
+        table.store(shallow, 2, 200, 2, TranspositionTable.exact);
+        table.store(other, 3, 300, 3, TranspositionTable.exact);
+        assertEquals(8, TranspositionTable.depthOf(table.probe(deep)));
+        assertEquals(0, table.probe(shallow));
+        assertEquals(3, TranspositionTable.moveOf(table.probe(other)));
+
+        // entries of an earlier search are replaced by any depth
+        table.newSearch();
+        table.store(shallow, 2, 200, 2, TranspositionTable.exact);
+        assertEquals(0, table.probe(deep));
+        assertEquals(2, TranspositionTable.moveOf(table.probe(shallow)));
+    }
+}
@@ -7,6 +7,8 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Contains methods to test the methods of the Board class
@@ -180,4 +182,304 @@ public class BoardTest {
         positions = b.getPiecePositionsFor(Piece.White);
         for (int i=61;i<64;i++) {assertTrue(positions.contains(i));}
     }
-}
\ No newline at end of file
+
+    /**
+     * Asserts that the bitboards of board describe the same position as getPieceAt
+     * @param board the position to check
+     */
+    private void assertBitboardsMatchSquares(Board board) {
+        for (int i = 0; i < 64; i++) {
+            int piece = board.getPieceAt(i);
+            long bit = 1L << i;
+            assertEquals(piece != Piece.None, (board.getOccupancy() & bit) != 0);
+            if (piece == Piece.None)
+                continue;
+            assertTrue((board.getPieceBitboard(Piece.getType(piece), Piece.getColor(piece)) & bit) != 0);
+        }
+        assertEquals(0, board.getColorBitboard(Piece.White) & board.getColorBitboard(Piece.Black));
+    }
+
+    /**
+     * Test that the bitboards are updated together with the squares
+     */
+    @Test
+    public void bitboardsFollowMoves() {
+        Board board = new Board("r3k2r/1P6/8/8/p7/8/1P6/R3K2R");
+        assertBitboardsMatchSquares(board);
+        assertEquals(5, Long.bitCount(board.getColorBitboard(Piece.White)));
+        assertEquals(1L << 60, board.getPieceBitboard(Piece.King, Piece.White));
+
+        board = board.makeMove(new Move(49, 33, Move.PawnTwoForward));
+        assertBitboardsMatchSquares(board);
+        board = board.makeMove(new Move(32, 41, Move.EnPassantCapture));
+        assertBitboardsMatchSquares(board);
+        board = board.makeMove(new Move(60, 62, Move.Castling));
+        assertBitboardsMatchSquares(board);
+        board = board.makeMove(new Move(4, 2, Move.Castling));
+        assertBitboardsMatchSquares(board);
+        board = board.makeMove(new Move(9, 1, Move.PromoteToKnight));
+        assertBitboardsMatchSquares(board);
+        assertEquals(1L << 1, board.getPieceBitboard(Piece.Knight, Piece.White));
+        assertEquals(0, board.getTypeBitboard(Piece.Pawn) & board.getColorBitboard(Piece.White));
+    }
+
+    /**
+     * Asserts that two boards describe the same position
+     */
+    private void assertSamePosition(Board expected, Board actual) {
+        for (int i = 0; i < 64; i++)
+            assertEquals(expected.getPieceAt(i), actual.getPieceAt(i));
+        assertEquals(expected.getOccupancy(), actual.getOccupancy());
+        assertEquals(expected.getColorBitboard(Piece.White), actual.getColorBitboard(Piece.White));
+        for (int type = Piece.King; type <= Piece.Queen; type++)
+            assertEquals(expected.getTypeBitboard(type), actual.getTypeBitboard(type));
+        assertEquals(expected.getTurnColor(), actual.getTurnColor());
+        assertEquals(expected.getEnPassantSquare(), actual.getEnPassantSquare());
+        assertEquals(expected.isCastlingA1Possible(), actual.isCastlingA1Possible());
+        assertEquals(expected.isCastlingH1Possible(), actual.isCastlingH1Possible());
+        assertEquals(expected.isCastlingA8Possible(), actual.isCastlingA8Possible());
+        assertEquals(expected.isCastlingH8Possible(), actual.isCastlingH8Possible());
+        assertEquals(expected.getCapturedPieces(), actual.getCapturedPieces());
+        assertEquals(expected.getLastMove(), actual.getLastMove());
+    }
+
+    /**
+     * Test that doMove gives the same position as makeMove and undoMove restores the position
+     */
+    @Test
+    public void doMoveUndoMove() {
+        Board board = new Board("r3k2r/p1pPqpb1/bn2pnp1/3PN3/Pp2P3/2N2Q1p/1PpBBPPP/R3K2R");
+        board.setEnPassantSquare(Coordinate.toIndex("a3"));
+        Board original = new Board(board);
+        for (int color : new int[]{Piece.White, Piece.Black}) {
+            board.setTurnColor(color);
+            original.setTurnColor(color);
+            MoveList moves = new MoveList();
+            new MoveGenerator(board).generateMoves(moves);
+            for (int i = 0; i < moves.size(); i++) {
+                board.doMove(moves.get(i));
+                assertSamePosition(original.makeMove(Move.decode(moves.get(i))), board);
+                board.undoMove();
+                assertSamePosition(original, board);
+            }
+        }
+    }
+
+    /**
+     * Test the attack queries looking backwards from a square
+     */
+    @Test
+    public void attackersOf() {
+        Board board = new Board("4k3/8/8/3p4/2N5/8/1B3R2/4K3");
+        long knightAndBishop = 1L << Coordinate.toIndex("c4") | 1L << Coordinate.toIndex("b2");
+        assertEquals(knightAndBishop, board.attackersOf(Coordinate.toIndex("e5")));
+        assertTrue(board.isSquareAttacked(Coordinate.toIndex("f5"), Piece.White));
+        assertFalse(board.isSquareAttacked(Coordinate.toIndex("f5"), Piece.Black));
+        // the black pawn attacks c4 and e4
+        assertTrue(board.isSquareAttacked(Coordinate.toIndex("c4"), Piece.Black));
+        assertFalse(board.isSquareAttacked(Coordinate.toIndex("d4"), Piece.Black));
+
+        long rookAndKing = 1L << Coordinate.toIndex("f2") | 1L << Coordinate.toIndex("e8");
+        assertEquals(rookAndKing, board.attackersOf(Coordinate.toIndex("f8")));
+        long blocked = board.getOccupancy() | 1L << Coordinate.toIndex("f4");
+        assertEquals(1L << Coordinate.toIndex("e8"), board.attackersOf(Coordinate.toIndex("f8"), blocked));
+    }
+
+    /**
+     * Test that the incrementally updated Zobrist key equals the recomputed key
+     */
+    @Test
+    public void zobristKeyFollowsMoves() {
+        Board board = new Board("r3k2r/p1pPqpb1/bn2pnp1/3PN3/Pp2P3/2N2Q1p/1PpBBPPP/R3K2R");
+        board.setEnPassantSquare(Coordinate.toIndex("a3"));
+        board.setTurnColor(Piece.Black);
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+        long before = board.getZobristKey();
+        // play the first move of every position for a few plies and take them back
+        LegalMoveGenerator generator = new LegalMoveGenerator();
+        int plies = 0;
+        for (int i = 0; i < 12; i++) {
+            MoveList moves = new MoveList();
+            generator.generate(board, moves);
+            if (moves.isEmpty())
+                break;
+            for (int j = 0; j < moves.size(); j++) {
+                board.doMove(moves.get(j));
+                assertEquals(board.computeZobristKey(), board.getZobristKey());
+                assertEquals(board.getZobristKey(), new Board(board).getZobristKey());
+                board.undoMove();
+                assertEquals(before, board.getZobristKey());
+            }
+            board.doMove(moves.get(i % moves.size()));
+            before = board.getZobristKey();
+            plies++;
+        }
+        for (; plies > 0; plies--)
+            board.undoMove();
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+    }
+
+    /**
+     * Test that the same position reached by different move orders has the same key
+     */
+    @Test
+    public void zobristKeyTransposition() {
+        Board board1 = new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR");
+        Board board2 = new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR");
+        int g1 = Coordinate.toIndex("g1");
+        int f3 = Coordinate.toIndex("f3");
+        int g8 = Coordinate.toIndex("g8");
+        int f6 = Coordinate.toIndex("f6");
+        int b1 = Coordinate.toIndex("b1");
+        int c3 = Coordinate.toIndex("c3");
+        board1.doMove(Move.encode(g1, f3, 0));
+        board1.doMove(Move.encode(g8, f6, 0));
+        board1.doMove(Move.encode(b1, c3, 0));
+        board2.doMove(Move.encode(b1, c3, 0));
+        board2.doMove(Move.encode(g8, f6, 0));
+        assertNotEquals(board1.getZobristKey(), board2.getZobristKey());
+        board2.doMove(Move.encode(g1, f3, 0));
+        assertEquals(board1.getZobristKey(), board2.getZobristKey());
+
+        // only the castling rights differ
+        board1.forbidCastlingH1();
+        assertNotEquals(board1.getZobristKey(), board2.getZobristKey());
+    }
+
+    /**
+     * Test repetition detection and the halfmove clock
+     */
+    @Test
+    public void repetitionAndHalfmoveClock() {
+        Board board = new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR");
+        int[] knightMoves = {
+                Move.encode(62, 45, 0), Move.encode(6, 21, 0), Move.encode(45, 62, 0), Move.encode(21, 6, 0)
+        };
+        for (int move : knightMoves)
+            board.doMove(move);
+        assertEquals(4, board.getHalfmoveClock());
+        assertEquals(1, board.countRepetitions());
+        assertTrue(board.isRepetition());
+        assertFalse(board.isThreefoldRepetition());
+        for (int move : knightMoves)
+            board.doMove(move);
+        assertTrue(board.isThreefoldRepetition());
+        // the copy keeps the positions that can still repeat
+        assertTrue(new Board(board).isThreefoldRepetition());
+
+        board.doMove(Move.encode(52, 36, Move.PawnTwoForward));
+        assertEquals(0, board.getHalfmoveClock());
+        assertFalse(board.isRepetition());
+        board.undoMove();
+        assertEquals(8, board.getHalfmoveClock());
+        assertTrue(board.isThreefoldRepetition());
+
+        board.setHalfmoveClock(99);
+        assertFalse(board.isFiftyMoveRule());
+        board.doMove(knightMoves[0]);
+        assertTrue(board.isFiftyMoveRule());
+    }
+
+    /**
+     * Test reading and writing all FEN fields
+     */
+    @Test
+    public void fenRoundTrip() {
+        String[] fens = {
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 17 42",
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        };
+        StringBuilder builder = new StringBuilder();
+        Board board = new Board();
+        for (String fen : fens) {
+            assertEquals(fen, new Board(fen).toFEN());
+            board.loadFEN(fen);
+            builder.setLength(0);
+            assertEquals(fen, board.appendFEN(builder).toString());
+            assertEquals(board.computeZobristKey(), board.getZobristKey());
+        }
+
+        board = new Board("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 17 42");
+        assertEquals(Piece.Black, board.getTurnColor());
+        assertFalse(board.isCastlingA1Possible() || board.isCastlingH8Possible());
+        assertEquals(17, board.getHalfmoveClock());
+        assertEquals(42, board.getFullmoveNumber());
+        board.doMove(Move.encode(Coordinate.toIndex("h5"), Coordinate.toIndex("h6"), 0));
+        assertEquals("8/2p5/3p3r/KP6/1R3p1k/8/4P1P1/8 w - - 18 43", board.toFEN());
+        board.undoMove();
+        assertEquals(42, board.getFullmoveNumber());
+
+        assertEquals(Coordinate.toIndex("e6"),
+                new Board("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2").getEnPassantSquare());
+    }
+
+    /**
+     * Test that a piece placement alone gets the default fields
+     */
+    @Test
+    public void fenDefaults() {
+        Board board = new Board("r3k2r/8/8/8/8/8/8/R3K2R");
+        assertEquals("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", board.toFEN());
+        assertThrows(IllegalArgumentException.class, () -> new Board("8/8/8/8/8/8/8/8 x - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> new Board("8/8/8/8/8/8/8/8 w KX - 0 1"));
+    }
+
+    /**
+     * Test that the piece counts and the material balance follow captures,
+     * promotions and undo
+     */
+    @Test
+    public void materialFollowsMoves() {
+        Board board = new Board("4k3/1P6/8/8/8/8/8/R3K2q w - - 0 1");
+        assertEquals(1, board.getPieceCount(Piece.Pawn, Piece.White));
+        assertEquals(Piece.getValue(Piece.Pawn) + Piece.getValue(Piece.Rook) - Piece.getValue(Piece.Queen),
+                board.getMaterialBalance());
+
+        // promotion, then the rook is captured
+        board.doMove(Move.encode(Coordinate.toIndex("b7"), Coordinate.toIndex("b8"), Move.PromoteToQueen));
+        assertEquals(0, board.getPieceCount(Piece.Pawn, Piece.White));
+        assertEquals(1, board.getPieceCount(Piece.Queen, Piece.White));
+        assertEquals(Piece.getValue(Piece.Rook), board.getMaterialBalance());
+        board.doMove(Move.encode(Coordinate.toIndex("h1"), Coordinate.toIndex("a1"), 0));
+        assertEquals(0, board.getPieceCount(Piece.Rook, Piece.White));
+        assertEquals(0, board.getMaterialBalance());
+        assertEquals(List.of(Piece.Rook + Piece.White), board.getCapturedPieces());
+
+        board.undoMove();
+        board.undoMove();
+        assertEquals(1, board.getPieceCount(Piece.Pawn, Piece.White));
+        assertEquals(1, board.getPieceCount(Piece.Rook, Piece.White));
+        assertEquals(0, board.getPieceCount(Piece.Queen, Piece.White));
+        assertEquals(Piece.getValue(Piece.Pawn) + Piece.getValue(Piece.Rook) - Piece.getValue(Piece.Queen),
+                board.getMaterialBalance());
+        assertTrue(board.getCapturedPieces().isEmpty());
+    }
+
+    /**
+     * Test that the king squares follow king moves, castling and captures of the
+     * king
+     */
+    @Test
+    public void kingSquaresFollowMoves() {
+        Board board = new Board("r3k3/8/8/8/8/8/8/4K2R w K - 0 1");
+        assertEquals(Coordinate.toIndex("e1"), board.getKingSquare(Piece.White));
+        assertEquals(Coordinate.toIndex("e8"), board.getKingSquare(Piece.Black));
+
+        board.doMove(Move.encode(Coordinate.toIndex("e1"), Coordinate.toIndex("g1"), Move.Castling));
+        assertEquals(Coordinate.toIndex("g1"), board.getKingSquare(Piece.White));
+        board.undoMove();
+        assertEquals(Coordinate.toIndex("e1"), board.getKingSquare(Piece.White));
+
+        // boards without a king are used by tests of the engine
+        board.doMove(Move.encode(Coordinate.toIndex("h1"), Coordinate.toIndex("h8"), 0));
+        board.doMove(Move.encode(Coordinate.toIndex("a8"), Coordinate.toIndex("a1"), 0));
+        board.doMove(Move.encode(Coordinate.toIndex("h8"), Coordinate.toIndex("e8"), 0));
+        assertEquals(-1, board.getKingSquare(Piece.Black));
+        assertEquals(-1, new Board(board).getKingSquare(Piece.Black));
+        board.undoMove();
+        assertEquals(Coordinate.toIndex("e8"), board.getKingSquare(Piece.Black));
+    }
+}
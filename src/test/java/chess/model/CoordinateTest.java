@@ -86,4 +86,15 @@ public class CoordinateTest {
 		assertTrue(Coordinate.isOnLowerBorder(57));
 		assertTrue(Coordinate.isOnLowerBorder(56));
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Method to test the expected behavior of the Methods Coordinate.fileOf() and
+	 * Coordinate.rankOf()
+	 */
+	@Test
+	public void fileAndRank() {
+		int b4 = Coordinate.toIndex("b4");
+		assertEquals(1, Coordinate.fileOf(b4));
+		assertEquals(4, Coordinate.rankOf(b4));
+	}
+}
@@ -2,6 +2,11 @@ package chess.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -182,4 +187,130 @@ public class GameTest {
         assertTrue(game.attemptMove(enPassantCapture));
     }
 
-}
\ No newline at end of file
+
+    /**
+     * Test that handed out positions are not changed by later moves and undo restores them
+     */
+    @Test
+    public void undoSeveralMoves() {
+        Game game = new Game();
+        Board start = game.getCurrentPosition();
+        Move[] moves = {
+                new Move(52, 36, Move.PawnTwoForward), new Move(11, 27, Move.PawnTwoForward),
+                new Move(36, 27), new Move(3, 27)
+        };
+        for (Move move : moves)
+            assertTrue(game.attemptMove(move));
+        Board afterCapture = game.getCurrentPosition();
+        assertEquals(2, afterCapture.getCapturedPieces().size());
+        assertEquals(Piece.Pawn + Piece.White, start.getPieceAt(52));
+
+        game.undoMove();
+        assertEquals(2, afterCapture.getCapturedPieces().size());
+        assertEquals(1, game.getCurrentPosition().getCapturedPieces().size());
+        for (int i = 0; i < moves.length; i++)
+            game.undoMove();
+        assertEquals(start.getZobristKey(), game.getCurrentPosition().getZobristKey());
+        assertEquals(Piece.Pawn + Piece.White, game.getCurrentPosition().getPieceAt(52));
+    }
+
+    /**
+     * Test that a saved game is replayed from its moves
+     */
+    @Test
+    public void serializeReplaysMoves() throws Exception {
+        Game game = new Game();
+        game.attemptMove(new Move(52, 36, Move.PawnTwoForward));
+        game.attemptMove(new Move(11, 27, Move.PawnTwoForward));
+        game.attemptMove(new Move(36, 27));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(game);
+        }
+        Game loaded;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            loaded = (Game) in.readObject();
+        }
+        assertEquals(game.getCurrentPosition().getZobristKey(), loaded.getCurrentPosition().getZobristKey());
+        assertEquals(game.getCurrentPosition().getCapturedPieces(), loaded.getCurrentPosition().getCapturedPieces());
+        loaded.undoMove();
+        assertEquals(Piece.Pawn + Piece.Black, loaded.getCurrentPosition().getPieceAt(27));
+    }
+
+    /**
+     * Test that the third repetition of a position is a draw
+     */
+    @Test
+    public void checkWinConditionRepetition() {
+        Game game = new Game();
+        Move[] knightMoves = {new Move(62, 45), new Move(6, 21), new Move(45, 62), new Move(21, 6)};
+        for (int i = 0; i < 2; i++) {
+            assertEquals(Game.WinCondition.NONE, game.checkWinCondition());
+            for (Move move : knightMoves)
+                assertTrue(game.attemptMove(move));
+        }
+        assertEquals(Game.WinCondition.REMIS, game.checkWinCondition());
+        game.undoMove();
+        assertEquals(Game.WinCondition.NONE, game.checkWinCondition());
+    }
+
+    /**
+     * Test that the legal moves and the check status follow moves and undo
+     */
+    @Test
+    public void legalMovesFollowPosition() {
+        Game game = new Game();
+        assertEquals(20, game.getLegalMoves().size());
+        assertEquals(2, game.getLegalMovesStartingAt(62).size());
+        assertTrue(game.getLegalMovesStartingAt(6).isEmpty());
+        assertFalse(game.isLegalMove(new Move(52, 36)));
+        assertTrue(game.isLegalMove(new Move(52, 36, Move.PawnTwoForward)));
+
+        // 1. f3 e5 2. g4 Qh4#
+        assertTrue(game.attemptMove(new Move(53, 45)));
+        assertTrue(game.attemptMove(new Move(12, 28, Move.PawnTwoForward)));
+        assertTrue(game.attemptMove(new Move(54, 38, Move.PawnTwoForward)));
+        assertFalse(game.checkCheck());
+        assertTrue(game.attemptMove(new Move(3, 39)));
+        assertTrue(game.checkCheck());
+        assertTrue(game.getLegalMoves().isEmpty());
+        assertEquals(Game.WinCondition.CHECKMATE, game.checkWinCondition());
+        assertEquals(Game.WinCondition.CHECKMATE, game.checkWinCondition(game.getCurrentPosition()));
+
+        game.undoMove();
+        assertFalse(game.checkCheck());
+        assertTrue(game.isLegalMove(new Move(3, 39)));
+    }
+
+    /**
+     * Test that another thread reads consistent positions and legal moves while
+     * moves are made and taken back
+     */
+    @Test
+    public void readWhileMoving() throws InterruptedException {
+        Game game = new Game();
+        // 1. f3 e5 2. g4, Qh4# is made and taken back
+        game.attemptMove(new Move(53, 45));
+        game.attemptMove(new Move(12, 28, Move.PawnTwoForward));
+        game.attemptMove(new Move(54, 38, Move.PawnTwoForward));
+        int moveCount = game.getLegalMoves().size();
+
+        Thread mover = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                game.attemptMove(new Move(3, 39));
+                game.undoMove();
+            }
+        });
+        mover.start();
+        while (mover.isAlive()) {
+            Board board = game.getCurrentPosition();
+            // the queen is either on d8 or on h4
+            assertTrue(board.getPieceAt(3) == Piece.None ^ board.getPieceAt(39) == Piece.None);
+            int size = game.getLegalMoves().size();
+            assertTrue(size == 0 || size == moveCount);
+        }
+        mover.join();
+        assertEquals(moveCount, game.getLegalMoves().size());
+    }
+}
@@ -0,0 +1,48 @@
+package chess.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the knight, king and pawn attack tables
+ */
+public class LeaperAttacksTest {
+
+    private long squares(String... names) {
+        long bitboard = 0;
+        for (String name : names)
+            bitboard |= 1L << Coordinate.toIndex(name);
+        return bitboard;
+    }
+
+    /**
+     * Test the knight table in the corner and the center
+     */
+    @Test
+    public void knightAttacks() {
+        assertEquals(squares("b6", "c7"), LeaperAttacks.knightAttacks(Coordinate.toIndex("a8")));
+        assertEquals(squares("f2", "g3"), LeaperAttacks.knightAttacks(Coordinate.toIndex("h1")));
+        assertEquals(8, Long.bitCount(LeaperAttacks.knightAttacks(Coordinate.toIndex("d4"))));
+    }
+
+    /**
+     * Test the king table on the border and the center
+     */
+    @Test
+    public void kingAttacks() {
+        assertEquals(squares("d1", "d2", "e2", "f2", "f1"), LeaperAttacks.kingAttacks(Coordinate.toIndex("e1")));
+        assertEquals(8, Long.bitCount(LeaperAttacks.kingAttacks(Coordinate.toIndex("e4"))));
+    }
+
+    /**
+     * Test that pawns attack towards the opponent and do not wrap around the board
+     */
+    @Test
+    public void pawnAttacks() {
+        assertEquals(squares("d3", "f3"), LeaperAttacks.pawnAttacks(Coordinate.toIndex("e2"), Piece.White));
+        assertEquals(squares("d6", "f6"), LeaperAttacks.pawnAttacks(Coordinate.toIndex("e7"), Piece.Black));
+        assertEquals(squares("b3"), LeaperAttacks.pawnAttacks(Coordinate.toIndex("a2"), Piece.White));
+        assertEquals(squares("g6"), LeaperAttacks.pawnAttacks(Coordinate.toIndex("h7"), Piece.Black));
+    }
+}
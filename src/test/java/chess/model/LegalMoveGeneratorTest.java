@@ -0,0 +1,183 @@
+package chess.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contains methods to test the methods of the LegalMoveGenerator class
+ */
+public class LegalMoveGeneratorTest {
+
+    /**
+     * @return the legal moves of the side to move in board
+     */
+    private MoveList legalMoves(Board board) {
+        MoveList moves = new MoveList();
+        new LegalMoveGenerator().generate(board, moves);
+        return moves;
+    }
+
+    /**
+     * Compares the generated moves with the pseudo-legal moves that do not leave the king in check
+     */
+    private void assertSameAsMakeAndCheck(Board board) {
+        MoveList legal = legalMoves(board);
+        MoveList pseudoLegal = new MoveList();
+        new MoveGenerator(board).generateMoves(pseudoLegal);
+        int expected = 0;
+        for (int i = 0; i < pseudoLegal.size(); i++) {
+            int move = pseudoLegal.get(i);
+            // castling needs more than the position afterwards
+            if (Move.flagOf(move) == Move.Castling)
+                continue;
+            boolean staysSafe = MoveValidator.checkCheck(board.makeMove(Move.decode(move)), board.getTurnColor()) == 0;
+            assertEquals(staysSafe, legal.contains(move), Move.decode(move).toString());
+            if (staysSafe)
+                expected++;
+        }
+        for (int i = 0; i < legal.size(); i++) {
+            if (Move.flagOf(legal.get(i)) == Move.Castling)
+                expected++;
+        }
+        assertEquals(expected, legal.size());
+    }
+
+    /**
+     * Test that the generator finds exactly the moves not leaving the king in check
+     */
+    @Test
+    public void generateMatchesMakeAndCheck() {
+        String[] fens = {
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1",
+                "bkr5/1q6/3r4/1b2n3/4P3/3K1Nq1/2PPP3/8",
+        };
+        for (String fen : fens) {
+            for (int color : new int[]{Piece.White, Piece.Black}) {
+                Board board = new Board(fen);
+                board.setTurnColor(color);
+                assertSameAsMakeAndCheck(board);
+            }
+        }
+    }
+
+    /**
+     * Test that a pinned piece only moves along the pin
+     */
+    @Test
+    public void generatePinnedPiece() {
+        Board board = new Board("4r3/8/8/8/8/8/4R3/4K3");
+        MoveList moves = legalMoves(board);
+        assertTrue(moves.contains(Move.encode(Coordinate.toIndex("e2"), Coordinate.toIndex("e8"), 0)));
+        assertFalse(moves.contains(Move.encode(Coordinate.toIndex("e2"), Coordinate.toIndex("d2"), 0)));
+    }
+
+    /**
+     * Test that only the king moves in double check
+     */
+    @Test
+    public void generateDoubleCheck() {
+        Board board = new Board("8/8/8/8/8/4q3/8/1q2K2R");
+        LegalMoveGenerator generator = new LegalMoveGenerator();
+        MoveList moves = new MoveList();
+        generator.generate(board, moves);
+        assertEquals(2, generator.getCheckCount());
+        assertTrue(moves.isEmpty());
+    }
+
+    /**
+     * Test the en passant capture that exposes the king along the rank
+     */
+    @Test
+    public void generateEnPassantDiscoveredCheck() {
+        Board board = new Board("8/8/8/K2pP2r/8/8/8/8");
+        board.setEnPassantSquare(Coordinate.toIndex("d6"));
+        assertFalse(legalMoves(board).contains(
+                Move.encode(Coordinate.toIndex("e5"), Coordinate.toIndex("d6"), Move.EnPassantCapture)));
+
+        board = new Board("8/8/8/3pP3/8/8/8/K7");
+        board.setEnPassantSquare(Coordinate.toIndex("d6"));
+        assertTrue(legalMoves(board).contains(
+                Move.encode(Coordinate.toIndex("e5"), Coordinate.toIndex("d6"), Move.EnPassantCapture)));
+    }
+
+    /**
+     * Test that castling needs the rook in its corner
+     */
+    @Test
+    public void generateCastlingWithoutRook() {
+        Board board = new Board("8/8/8/8/8/8/8/4K2R");
+        assertTrue(legalMoves(board).contains(Move.encode(60, 62, Move.Castling)));
+        board = new Board("8/8/8/8/8/8/8/4K3");
+        assertFalse(legalMoves(board).contains(Move.encode(60, 62, Move.Castling)));
+    }
+
+    /**
+     * Test that the modes split the moves into captures and quiet moves
+     */
+    @Test
+    public void generateModes() {
+        Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R");
+        LegalMoveGenerator generator = new LegalMoveGenerator();
+        MoveList captures = new MoveList();
+        MoveList quiets = new MoveList();
+        generator.generate(board, captures, LegalMoveGenerator.Captures);
+        generator.generate(board, quiets, LegalMoveGenerator.Quiets);
+        assertEquals(8, captures.size());
+        assertEquals(legalMoves(board).size(), captures.size() + quiets.size());
+    }
+
+    /**
+     * Test that counting finds as many moves as generating and that a mate or
+     * stalemate has no legal move
+     */
+    @Test
+    public void countLegalMoves() {
+        String[] fens = {
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq -",
+                "rnbqkbnr/pppp1ppp/8/4p3/4PP2/8/PPPP2PP/RNBQKBNR b KQkq f3",
+                "rnb1kbnr/pppp1ppp/8/4p3/5PPq/8/PPPPP2P/RNBQKBNR w KQkq -",
+                "k7/8/1Q6/8/8/8/8/7K b - -",
+        };
+        LegalMoveGenerator generator = new LegalMoveGenerator();
+        for (String fen : fens) {
+            Board board = new Board(fen);
+            int expected = legalMoves(board).size();
+            assertEquals(expected, generator.countLegalMoves(board), fen);
+            assertEquals(expected != 0, generator.hasAnyLegalMove(board), fen);
+        }
+        assertFalse(generator.hasAnyLegalMove(new Board("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq -")));
+    }
+
+    /**
+     * Test that the check of a single move agrees with the generated moves for
+     * every possible packed move
+     */
+    @Test
+    public void isLegalMatchesGenerate() {
+        String[] fens = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq -",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq -",
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6",
+                "8/8/8/K2pP2r/8/8/8/7k w - d6",
+                "rnb1kbnr/pppp1ppp/8/4p3/5PPq/8/PPPPP2P/RNBQKBNR w KQkq -",
+                "4k3/8/8/8/8/8/8/r3K2R w K -",
+        };
+        LegalMoveGenerator generator = new LegalMoveGenerator();
+        for (String fen : fens) {
+            Board board = new Board(fen);
+            MoveList legal = legalMoves(board);
+            for (int move = 0; move < 1 << 15; move++)
+                assertEquals(legal.contains(move), generator.isLegal(board, move), fen + " " + Move.decode(move));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package chess.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the MoveList class
+ */
+public class MoveListTest {
+
+    /**
+     * Test adding, removing and growing beyond the initial capacity
+     */
+    @Test
+    public void addRemoveGrow() {
+        MoveList moves = new MoveList(2);
+        assertTrue(moves.isEmpty());
+        for (int i = 0; i < 5; i++)
+            moves.add(Move.encode(i, i + 8, 0));
+        assertEquals(5, moves.size());
+        assertTrue(moves.contains(Move.encode(2, 10, 0)));
+        moves.removeAt(2);
+        assertEquals(4, moves.size());
+        assertFalse(moves.contains(Move.encode(2, 10, 0)));
+        assertEquals(Move.encode(4, 12, 0), moves.get(2));
+        moves.clear();
+        assertTrue(moves.isEmpty());
+    }
+
+    /**
+     * Test that the generator fills a MoveList with the same moves as the list of Move objects
+     */
+    @Test
+    public void generatorFillsMoveList() {
+        Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R");
+        MoveGenerator generator = new MoveGenerator(board);
+        MoveList moves = new MoveList();
+        generator.generateMoves(moves);
+        List<Move> expected = generator.generateMoves();
+        assertEquals(expected.size(), moves.size());
+        assertTrue(moves.toMoves().containsAll(expected));
+    }
+}
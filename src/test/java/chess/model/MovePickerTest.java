@@ -0,0 +1,155 @@
+package chess.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contains methods to test the methods of the MovePicker class
+ */
+public class MovePickerTest {
+
+    private static final String kiwipete = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -";
+
+    private static int move(String start, String target) {
+        return Move.encode(Coordinate.toIndex(start), Coordinate.toIndex(target), 0);
+    }
+
+    /**
+     * @return all moves picked until the picker is empty
+     */
+    private static List<Integer> pickAll(MovePicker picker) {
+        List<Integer> moves = new ArrayList<>();
+        for (int move = picker.next(); move != 0; move = picker.next())
+            moves.add(move);
+        return moves;
+    }
+
+    /**
+     * Compares the picked moves with the generated legal moves
+     */
+    private static void assertPicksAllLegalMoves(Board board, int hashMove, int killer1, int killer2) {
+        MovePicker picker = new MovePicker();
+        picker.init(board, hashMove, killer1, killer2);
+        List<Integer> picked = pickAll(picker);
+        MoveList legal = new MoveList();
+        new LegalMoveGenerator().generate(board, legal);
+        assertEquals(legal.size(), picked.size());
+        for (int i = 0; i < legal.size(); i++)
+            assertTrue(picked.contains(legal.get(i)), Move.decode(legal.get(i)).toString());
+    }
+
+    /**
+     * Test that every legal move is picked exactly once, also with illegal hash
+     * and killer moves
+     */
+    @Test
+    public void picksEveryMoveOnce() {
+        Board board = new Board(kiwipete);
+        assertPicksAllLegalMoves(board, 0, 0, 0);
+        assertPicksAllLegalMoves(board, move("e2", "a6"), move("a2", "a3"), move("e1", "d1"));
+        // illegal: the knight on c3 cannot reach c4, a black piece, a capture as killer
+        assertPicksAllLegalMoves(board, move("c3", "c4"), move("a8", "b8"), move("e5", "f7"));
+        assertPicksAllLegalMoves(new Board("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -"), move("e2", "e4"), 0, 0);
+    }
+
+    /**
+     * Test the order of the stages
+     */
+    @Test
+    public void picksInStages() {
+        Board board = new Board(kiwipete);
+        int hashMove = move("a2", "a3");
+        int killer = move("g2", "g3");
+        MovePicker picker = new MovePicker();
+        picker.init(board, hashMove, killer, 0);
+        assertEquals(hashMove, picker.next());
+        // e2xa6 wins an undefended bishop
+        assertEquals(move("e2", "a6"), picker.next());
+        List<Integer> picked = new ArrayList<>();
+        boolean losing = false;
+        for (int move = picker.next(); move != 0; move = picker.next()) {
+            picked.add(move);
+            // f3xf6 loses the queen for a knight, it is defended by the bishop on g7
+            if (move == move("f3", "f6"))
+                losing = picker.isLosingCapture();
+        }
+        int killerIndex = picked.indexOf(killer);
+        int quietIndex = picked.indexOf(Move.encode(Coordinate.toIndex("a2"), Coordinate.toIndex("a4"),
+                Move.PawnTwoForward));
+        int losingIndex = picked.indexOf(move("f3", "f6"));
+        // g2xh3 wins a pawn, f3xh3 would lose the queen to the rook on h8
+        assertTrue(picked.indexOf(move("g2", "h3")) < killerIndex);
+        assertTrue(losingIndex < picked.indexOf(move("f3", "h3")));
+        assertTrue(killerIndex < quietIndex);
+        assertTrue(quietIndex < losingIndex);
+        assertTrue(losing);
+        for (int i = losingIndex; i < picked.size(); i++)
+            assertTrue(board.getPieceAt(Move.targetSquareOf(picked.get(i))) != Piece.None);
+    }
+
+    /**
+     * Test that the countermove follows the killers and that the other quiet
+     * moves are picked by history score
+     */
+    @Test
+    public void picksQuietsByHistory() {
+        Board board = new Board(kiwipete);
+        int killer = move("g2", "g3");
+        int counterMove = move("a1", "b1");
+        int[] history = new int[4096];
+        history[Move.historyIndex(move("e1", "d1"))] = 300;
+        history[Move.historyIndex(move("d2", "c1"))] = 200;
+        history[Move.historyIndex(counterMove)] = 1000;
+        MovePicker picker = new MovePicker();
+        picker.init(board, 0, killer, 0, counterMove, history);
+        List<Integer> picked = pickAll(picker);
+        int killerIndex = picked.indexOf(killer);
+        assertEquals(counterMove, picked.get(killerIndex + 1));
+        assertEquals(move("e1", "d1"), picked.get(killerIndex + 2));
+        assertEquals(move("d2", "c1"), picked.get(killerIndex + 3));
+        assertEquals(1, picked.stream().filter(move -> move == counterMove).count());
+        assertPicksAllLegalMoves(board, 0, killer, 0);
+    }
+
+    /**
+     * Test that captures-only mode picks the captures and promotions only
+     */
+    @Test
+    public void capturesOnly() {
+        Board board = new Board("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq -");
+        MovePicker picker = new MovePicker();
+        picker.initCaptures(board);
+        List<Integer> picked = pickAll(picker);
+        MoveList captures = new MoveList();
+        new LegalMoveGenerator().generate(board, captures, LegalMoveGenerator.Captures);
+        assertEquals(captures.size(), picked.size());
+        for (int move : picked) {
+            assertTrue(captures.contains(move));
+            assertFalse(board.getPieceAt(Move.targetSquareOf(move)) == Piece.None
+                    && Move.flagOf(move) < Move.PromoteToKnight);
+        }
+    }
+
+    /**
+     * Test the static exchange evaluation with the examples of
+     * https://www.chessprogramming.org/SEE_-_The_Swap_Algorithm
+     */
+    @Test
+    public void staticExchange() {
+        MovePicker picker = new MovePicker();
+        Board board = new Board("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - -");
+        picker.initCaptures(board);
+        assertEquals(Piece.getValue(Piece.Pawn), picker.staticExchange(move("e1", "e5")));
+
+        board = new Board("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - -");
+        picker.initCaptures(board);
+        assertEquals(Piece.getValue(Piece.Pawn) - Piece.getValue(Piece.Knight),
+                picker.staticExchange(move("d3", "e5")));
+    }
+}
@@ -98,4 +98,19 @@ public class MoveTest {
         assertEquals(Move.parseUserMoveInput("a8-h1Q", game), new Move(0, 63, Move.PromoteToQueen));
         assertEquals(Move.parseUserMoveInput("h1-a8R",game), new Move(63, 0, Move.PromoteToRook));
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Test packing a move into an int and back
+     */
+    @Test
+    public void encodeDecode() {
+        Move m = new Move(Coordinate.toIndex("h2"), Coordinate.toIndex("h1"), Move.PromoteToKnight);
+        int packed = m.encode();
+        assertEquals(Coordinate.toIndex("h2"), Move.startSquareOf(packed));
+        assertEquals(Coordinate.toIndex("h1"), Move.targetSquareOf(packed));
+        assertEquals(Move.PromoteToKnight, Move.flagOf(packed));
+        assertEquals(m, Move.decode(packed));
+        assertEquals(Move.encode(63, 0, Move.Castling), new Move(63, 0, Move.Castling).encode());
+    }
+}
@@ -0,0 +1,62 @@
+package chess.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Contains methods to test the methods of the ParallelPerft class
+ */
+public class ParallelPerftTest {
+
+    /**
+     * Test the published counts of deeper plies
+     */
+    @Test
+    public void perft() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelPerft perft = new ParallelPerft(pool, 16);
+            Board start = new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR");
+            assertEquals(4865609, perft.perft(start, 5));
+            assertEquals(20, perft.perft(start, 1));
+
+            Board kiwipete = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R");
+            assertEquals(4085603, perft.perft(kiwipete, 4));
+
+            Board position3 = new Board("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+            assertEquals(674624, perft.perft(position3, 5));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test that the parallel divide gives the same counts as the sequential one
+     */
+    @Test
+    public void divide() {
+        Board board = new Board("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R");
+        Map<Move, Long> expected = new Perft().divide(board, 3);
+        ParallelPerft perft = new ParallelPerft(ForkJoinPool.commonPool(), 1);
+        assertEquals(expected, perft.divide(board, 3));
+        assertEquals(new Perft().divide(board, 1), perft.divide(board, 1));
+        assertEquals(expected, new ParallelPerft(ForkJoinPool.commonPool()).divide(board, 3));
+    }
+
+    /**
+     * Test that depth 0 is rejected like in Perft
+     */
+    @Test
+    public void rejectsDepthZero() {
+        Board board = new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR");
+        ParallelPerft perft = new ParallelPerft(ForkJoinPool.commonPool(), 1);
+        assertThrows(IllegalArgumentException.class, () -> perft.perft(board, 0));
+        assertThrows(IllegalArgumentException.class, () -> perft.divide(board, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Perft().divide(board, 0));
+    }
+}
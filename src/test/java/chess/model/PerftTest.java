@@ -0,0 +1,84 @@
+package chess.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the perft results of the move generation with the published node
+ * counts of the standard test positions (https://www.chessprogramming.org/Perft_Results)
+ */
+public class PerftTest {
+
+    private void assertPerft(String fen, long... expectedNodes) {
+        Board board = new Board(fen);
+        Perft perft = new Perft();
+        for (int depth = 1; depth <= expectedNodes.length; depth++)
+            assertEquals(expectedNodes[depth - 1], perft.perft(board, depth), fen + " depth " + depth);
+    }
+
+    /**
+     * Test the starting position
+     */
+    @Test
+    public void perftStartingPosition() {
+        assertPerft("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -", 20, 400, 8902, 197281);
+    }
+
+    /**
+     * Test "Kiwipete", a position with castling, en passant and promotions
+     */
+    @Test
+    public void perftKiwipete() {
+        assertPerft("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -", 48, 2039, 97862);
+    }
+
+    /**
+     * Test the endgame position with discovered checks by en passant captures
+     */
+    @Test
+    public void perftPosition3() {
+        assertPerft("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -", 14, 191, 2812, 43238);
+    }
+
+    /**
+     * Test the position with promotions and castling of black only
+     */
+    @Test
+    public void perftPosition4() {
+        assertPerft("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq -", 6, 264, 9467);
+        // the same position with the colors reversed
+        assertPerft("r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ -", 6, 264, 9467);
+    }
+
+    /**
+     * Test position 5 of the perft results page
+     */
+    @Test
+    public void perftPosition5() {
+        assertPerft("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ -", 44, 1486, 62379);
+    }
+
+    /**
+     * Test position 6 of the perft results page
+     */
+    @Test
+    public void perftPosition6() {
+        assertPerft("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - -", 46, 2079, 89890);
+    }
+
+    /**
+     * Test that divide splits the count by root moves
+     */
+    @Test
+    public void divide() {
+        Board board = new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -");
+        Map<Move, Long> counts = new Perft().divide(board, 3);
+        assertEquals(20, counts.size());
+        assertEquals(8902, counts.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(600, counts.get(new Move(Coordinate.toIndex("e2"), Coordinate.toIndex("e4"), Move.PawnTwoForward)));
+        assertEquals(440, counts.get(new Move(Coordinate.toIndex("b1"), Coordinate.toIndex("c3"))));
+    }
+}
@@ -0,0 +1,56 @@
+package chess.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the magic bitboard lookup of sliding attacks
+ */
+public class SlidingAttacksTest {
+
+    private static final int[][] rookDeltas = { { 0, -1 }, { 1, 0 }, { 0, 1 }, { -1, 0 } };
+    private static final int[][] bishopDeltas = { { -1, -1 }, { 1, -1 }, { -1, 1 }, { 1, 1 } };
+
+    /**
+     * Test attacks on an empty board
+     */
+    @Test
+    public void attacksOnEmptyBoard() {
+        assertEquals(14, Long.bitCount(SlidingAttacks.rookAttacks(0, 0L)));
+        assertEquals(7, Long.bitCount(SlidingAttacks.bishopAttacks(0, 0L)));
+        assertEquals(13, Long.bitCount(SlidingAttacks.bishopAttacks(Coordinate.toIndex("d4"), 0L)));
+        assertEquals(27, Long.bitCount(SlidingAttacks.queenAttacks(Coordinate.toIndex("e5"), 0L)));
+    }
+
+    /**
+     * Test that rays stop at the first blocking piece, which is included
+     */
+    @Test
+    public void attacksStopAtBlocker() {
+        Board board = new Board("8/8/8/1p6/8/1R1P4/8/8");
+        long attacks = SlidingAttacks.rookAttacks(Coordinate.toIndex("b3"), board.getOccupancy());
+        long expected = 0;
+        for (String square : new String[] { "b4", "b5", "a3", "c3", "d3", "b2", "b1" })
+            expected |= 1L << Coordinate.toIndex(square);
+        assertEquals(expected, attacks);
+    }
+
+    /**
+     * Compare the table lookup with walking the rays on random occupancies
+     */
+    @Test
+    public void lookupMatchesRayWalk() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            long occupancy = random.nextLong() & random.nextLong();
+            int square = random.nextInt(64);
+            assertEquals(SlidingAttacks.slidingAttacks(square, occupancy, rookDeltas),
+                    SlidingAttacks.rookAttacks(square, occupancy));
+            assertEquals(SlidingAttacks.slidingAttacks(square, occupancy, bishopDeltas),
+                    SlidingAttacks.bishopAttacks(square, occupancy));
+        }
+    }
+}